@@ -0,0 +1,252 @@
+package netdriller.parser;
+
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+public class CountingCheck
+{
+	/***
+	 *
+	 *	This is a check that the counts of the Parser are the same as the counts of the Hashtable counting it started
+	 *	from, cell by cell, for all three modes.
+	 *
+	 *	The papers are counted with the aggregator of every mode (CooccurrenceGraph.add_pair for modes 1 and 2) on one
+	 *	and on several threads, and with HashtableCounting, the Hashtable counting with the reset of user-002 fixed.
+	 *	The papers are those of an input file and of a synthetic corpus, with papers that list an author or keyword twice,
+	 *	papers with a single author and papers with hundreds of authors added to it. Every mode is also counted
+	 *	into a graph that spills to disk, which is read back through the merge of its runs.
+	 *
+	 *	java CountingCheck [input=input.txt] [papers=5000] [threads=3]
+	 *
+	 *	It prints the cells that differ and ends with exit code 1 if any cell differs, and with exit code 2 if a
+	 *	parameter is not known, so it can be run as the test of the counting before a change is merged.
+	 */
+
+	public static long SPILLED_PAIRS = 1000; // The pairs counted in memory before the spilled runs spill
+
+	public static void main(String[] args) throws Exception
+	{
+		String input = "input.txt";
+		int threads = 3;
+		SyntheticCorpus generator = new SyntheticCorpus();
+		generator.papers = 5000;
+		generator.author_count = 2000;
+		generator.key_word_count = 1000;
+
+		for (String arg : args)
+		{
+			String[] pair = arg.split("=", 2);
+			String value = pair.length == 2 ? pair[1] : "";
+			switch (pair[0])
+			{
+				case "input": input = value; break;
+				case "papers": generator.papers = Integer.parseInt(value); break;
+				case "threads": threads = Integer.parseInt(value); break;
+				default:
+					System.out.println("Unknown parameter " + arg);
+					System.exit(2);
+			}
+		}
+
+		boolean same = check(input, read(input), threads);
+
+		List<JSONObject> corpus = generator.generate();
+		add_edge_cases(corpus, new Random(generator.seed));
+		same &= check("a synthetic corpus of " + corpus.size() + " papers", corpus, threads);
+
+		if (!same)
+		{
+			System.out.println("The counts differ.");
+			System.exit(1);
+		}
+
+		System.out.println("All the counts are the same.");
+	}
+
+	/***
+	 * Counts the papers in all three modes both ways and compares every cell.
+	 *
+	 * @return true if all the cells are the same.
+	 */
+	private static boolean check(String name, List<JSONObject> corpus, int threads) throws Exception
+	{
+		SymbolTable author_table = new SymbolTable("author");
+		SymbolTable key_word_table = new SymbolTable("keyword");
+		List<Paper> papers = new ArrayList<Paper>(corpus.size());
+		for (JSONObject json : corpus)
+		{
+			papers.add(new Paper(json, author_table, key_word_table));
+		}
+
+		Map<Integer, Hashtable<String, Hashtable<String, Integer>>> expected = new HashMap<Integer, Hashtable<String, Hashtable<String, Integer>>>();
+		expected.put(Parser.COAUTHORED_PAPERS_MODE, HashtableCounting.members(corpus, "authors"));
+		expected.put(Parser.TILTES_AND_KEYWORDS_MODE, HashtableCounting.members(corpus, "keywords"));
+		expected.put(Parser.AUTHORS_AND_KEYWORDS_MODE, HashtableCounting.authors_and_keywords(corpus));
+
+		boolean same = true;
+		int[] thread_counts = { 1, threads, threads };
+		for (int mode = 1; mode <= 3; mode++)
+		{
+			for (int run = 0; run < thread_counts.length; run++)
+			{
+				CooccurrenceGraph graph = Parser.aggregator(mode, author_table, key_word_table).new_graph();
+
+				// The last run spills the counts to disk with a small budget, they are merged back when compared
+				boolean spilled = run == thread_counts.length - 1;
+				if (spilled)
+				{
+					graph.spill_to(new SpillStore(null, graph.is_one_mode()), SPILLED_PAIRS);
+				}
+
+				Parser.aggregate(papers, mode, graph, thread_counts[run], null);
+
+				int differences = compare(expected.get(mode), graph);
+				System.out.println(name + ", mode " + mode + " on " + thread_counts[run] + " threads" + (spilled ? " spilled to disk: " : ": ") + (differences == 0 ? "same" : differences + " cells differ"));
+				same &= differences == 0;
+
+				if (spilled)
+				{
+					graph.spill.delete();
+				}
+			}
+		}
+
+		return same;
+	}
+
+	/***
+	 * @return the number of cells of the graph that differ from the Hashtable counts, the first few are printed.
+	 */
+	private static int compare(Hashtable<String, Hashtable<String, Integer>> expected, CooccurrenceGraph graph)
+	{
+		// Every cell of the matrix with a weight, both triangles of a one-mode graph
+		Map<String, Map<String, Integer>> counted = new HashMap<String, Map<String, Integer>>();
+		for (int row : graph.row_ids())
+		{
+			counted.put(graph.rows.name(row), new HashMap<String, Integer>());
+		}
+
+		EdgeCursor edges = graph.matrix_edges();
+		while (edges.next())
+		{
+			counted.get(graph.rows.name(edges.row())).put(graph.columns.name(edges.column()), edges.weight());
+		}
+
+		int differences = 0;
+		if (!counted.keySet().equals(expected.keySet()))
+		{
+			System.out.println("\tThe rows differ: " + counted.size() + " rows instead of " + expected.size());
+			differences++;
+		}
+
+		for (Map.Entry<String, Hashtable<String, Integer>> row : expected.entrySet())
+		{
+			Map<String, Integer> cells = counted.get(row.getKey());
+			if (cells == null)
+			{
+				continue;
+			}
+
+			for (Map.Entry<String, Integer> cell : row.getValue().entrySet())
+			{
+				Integer weight = cells.remove(cell.getKey());
+				if (!cell.getValue().equals(weight))
+				{
+					differences += report(differences, row.getKey(), cell.getKey(), cell.getValue(), weight);
+				}
+			}
+
+			// What is left was not counted by the Hashtables
+			for (Map.Entry<String, Integer> cell : cells.entrySet())
+			{
+				differences += report(differences, row.getKey(), cell.getKey(), null, cell.getValue());
+			}
+		}
+
+		return differences;
+	}
+
+	private static int report(int differences, String row, String column, Integer expected, Integer weight)
+	{
+		if (differences < 10)
+		{
+			System.out.println("\t" + row + " / " + column + ": " + weight + " instead of " + expected);
+		}
+
+		return 1;
+	}
+
+	/***
+	 * Adds papers that list an author or keyword twice, papers with a single author and papers with many authors.
+	 */
+	@SuppressWarnings("unchecked") // JSONObject and JSONArray are raw collections
+	private static void add_edge_cases(List<JSONObject> corpus, Random random)
+	{
+		int papers = corpus.size();
+		for (int i = 0; i < papers / 20; i++)
+		{
+			JSONObject paper = corpus.get(random.nextInt(papers));
+			JSONArray authors = (JSONArray) paper.get("authors");
+			JSONArray key_words = (JSONArray) paper.get("keywords");
+
+			JSONObject twice = new JSONObject();
+			JSONArray twice_authors = new JSONArray();
+			twice_authors.addAll(authors);
+			twice_authors.add(authors.get(0));
+			twice_authors.add(authors.get(0).toString().toLowerCase()); // Upper cased to the same name
+			JSONArray twice_key_words = new JSONArray();
+			twice_key_words.addAll(key_words);
+			twice_key_words.add(key_words.get(0));
+			twice.put("authors", twice_authors);
+			twice.put("keywords", twice_key_words);
+			corpus.add(twice);
+
+			JSONObject single = new JSONObject();
+			JSONArray single_author = new JSONArray();
+			single_author.add(authors.get(0));
+			single.put("authors", single_author);
+			single.put("keywords", new JSONArray());
+			corpus.add(single);
+		}
+
+		for (int i = 0; i < 5; i++)
+		{
+			JSONObject consortium = new JSONObject();
+			JSONArray authors = new JSONArray();
+			for (int a = 0; a < 300; a++)
+			{
+				authors.add(((JSONArray) corpus.get(random.nextInt(papers)).get("authors")).get(0));
+			}
+
+			consortium.put("authors", authors);
+			consortium.put("keywords", corpus.get(random.nextInt(papers)).get("keywords"));
+			corpus.add(consortium);
+		}
+	}
+
+	@SuppressWarnings("unchecked") // The input file is a JSON array of paper objects
+	private static List<JSONObject> read(String input) throws Exception
+	{
+		Reader reader = new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8);
+		try
+		{
+			return new ArrayList<JSONObject>((JSONArray) new JSONParser().parse(reader));
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package netdriller.parser;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+public class HashtableCounting
+{
+	/***
+	 *
+	 *	This is the counting of the three modes as the Parser did it with nested Hashtables, before the PairCounter.
+	 *	The outer table is keyed by a member (author or keyword), its counter table by the member it co-occurred with.
+	 *
+	 *	The literal methods are the code of the first version of the Parser, with the bug that a member whose paper
+	 *	has nothing to count with (like the author of a single-author paper) is put back with a fresh counter, which
+	 *	drops all of its counts up to that paper. They are what the benchmarks compare against.
+	 *	The other methods are the same counting with that bug fixed, they give the counts the Parser has given since,
+	 *	see CountingCheck.
+	 */
+
+	/***
+	 * The counting of modes 1 and 2 as it was done in do_co_authors and do_titles_and_keywords.
+	 *
+	 * @param field - The authors or keywords field of the papers.
+	 */
+	public static Hashtable<String, Hashtable<String, Integer>> literal_members(List<JSONObject> corpus, String field)
+	{
+		Hashtable<String, Hashtable<String, Integer>> golbal_map = new Hashtable<String, Hashtable<String, Integer>>();
+		HashSet<String> all_members = new HashSet<String>();
+		for (JSONObject json : corpus)
+		{
+			ArrayList<String> members = upper_case((JSONArray) json.get(field));
+			for (String member : members)
+			{
+				all_members.add(member);
+
+				ArrayList<String> others = new ArrayList<String>();
+				others.addAll(members);
+				others.remove(member);
+
+				Hashtable<String, Integer> counter = new Hashtable<String, Integer>();
+				for (String other : others)
+				{
+					if (golbal_map.containsKey(member))
+					{
+						counter = golbal_map.get(member);
+					}
+
+					Integer count = counter.get(other);
+					int new_count = 1;
+					if (count != null)
+					{
+						new_count = count + 1;
+					}
+
+					counter.put(other, Integer.valueOf(new_count));
+				}
+
+				golbal_map.put(member, counter);
+			}
+		}
+
+		return golbal_map;
+	}
+
+	/***
+	 * The counting of mode 3 as it was done in do_authors_and_keywords.
+	 */
+	public static Hashtable<String, Hashtable<String, Integer>> literal_authors_and_keywords(List<JSONObject> corpus)
+	{
+		Hashtable<String, Hashtable<String, Integer>> golbal_map = new Hashtable<String, Hashtable<String, Integer>>();
+		HashSet<String> all_authors = new HashSet<String>();
+		HashSet<String> all_key_words = new HashSet<String>();
+		for (JSONObject json : corpus)
+		{
+			ArrayList<String> paper_key_words = upper_case((JSONArray) json.get("keywords"));
+			for (String author : upper_case((JSONArray) json.get("authors")))
+			{
+				all_authors.add(author);
+
+				ArrayList<String> key_words = new ArrayList<String>();
+				key_words.addAll(paper_key_words);
+
+				Hashtable<String, Integer> counter = new Hashtable<String, Integer>();
+				for (String key_word : key_words)
+				{
+					all_key_words.add(key_word);
+					if (golbal_map.containsKey(author))
+					{
+						counter = golbal_map.get(author);
+					}
+
+					Integer count = counter.get(key_word);
+					int new_count = 1;
+					if (count != null)
+					{
+						new_count = count + 1;
+					}
+
+					counter.put(key_word, Integer.valueOf(new_count));
+				}
+
+				golbal_map.put(author, counter);
+			}
+		}
+
+		return golbal_map;
+	}
+
+	/***
+	 * The counting of modes 1 and 2 with the counters of the members kept from paper to paper.
+	 *
+	 * @param field - The authors or keywords field of the papers.
+	 */
+	public static Hashtable<String, Hashtable<String, Integer>> members(List<JSONObject> corpus, String field)
+	{
+		Hashtable<String, Hashtable<String, Integer>> golbal_map = new Hashtable<String, Hashtable<String, Integer>>();
+		for (JSONObject json : corpus)
+		{
+			ArrayList<String> members = upper_case((JSONArray) json.get(field));
+			for (String member : members)
+			{
+				ArrayList<String> others = new ArrayList<String>(members);
+				others.remove(member);
+
+				Hashtable<String, Integer> counter = golbal_map.get(member);
+				if (counter == null)
+				{
+					counter = new Hashtable<String, Integer>();
+					golbal_map.put(member, counter);
+				}
+
+				for (String other : others)
+				{
+					Integer count = counter.get(other);
+					counter.put(other, count == null ? 1 : count + 1);
+				}
+			}
+		}
+
+		return golbal_map;
+	}
+
+	/***
+	 * The counting of mode 3 with the counters of the authors kept from paper to paper.
+	 */
+	public static Hashtable<String, Hashtable<String, Integer>> authors_and_keywords(List<JSONObject> corpus)
+	{
+		Hashtable<String, Hashtable<String, Integer>> golbal_map = new Hashtable<String, Hashtable<String, Integer>>();
+		for (JSONObject json : corpus)
+		{
+			ArrayList<String> key_words = upper_case((JSONArray) json.get("keywords"));
+			for (String author : upper_case((JSONArray) json.get("authors")))
+			{
+				Hashtable<String, Integer> counter = golbal_map.get(author);
+				if (counter == null)
+				{
+					counter = new Hashtable<String, Integer>();
+					golbal_map.put(author, counter);
+				}
+
+				for (String key_word : key_words)
+				{
+					Integer count = counter.get(key_word);
+					counter.put(key_word, count == null ? 1 : count + 1);
+				}
+			}
+		}
+
+		return golbal_map;
+	}
+
+	private static ArrayList<String> upper_case(JSONArray values)
+	{
+		ArrayList<String> upper = new ArrayList<String>(values.size());
+		for (Object value : values)
+		{
+			upper.add(((String) value).toUpperCase());
+		}
+
+		return upper;
+	}
+}
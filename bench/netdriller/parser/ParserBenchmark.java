@@ -0,0 +1,267 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.simple.JSONObject;
+
+public class ParserBenchmark
+{
+	/***
+	 *
+	 *	This is a benchmark suite for the phases of the Parser: Paper construction, title tokenizing, reading the input file,
+	 *	the aggregation of each mode and writing the output. It also runs the Hashtable based counting the
+	 *	first version of the Parser used, as it was written, so new engines can be compared against it.
+	 *
+	 *	Every benchmark runs a number of warm up iterations (so the JIT has compiled the hot paths) followed by
+	 *	the measured iterations, on a synthetic corpus generated by SyntheticCorpus.
+	 *
+	 *	Usage (the bench folder is compiled together with the src folder):
+	 *	java ParserBenchmark [papers=100000] [authors=4] [keywords=5] [author_vocabulary=50000] [keyword_vocabulary=20000]
+	 *	                     [skew=1.0] [warmup=3] [iterations=5] [threads=1] [only=<BENCHMARK_PREFIX>] [csv=<RESULT_FILE>]
+	 *
+	 *	With csv=<RESULT_FILE> a line per benchmark is appended to the file, so results can be tracked between runs.
+	 */
+
+	private static int warmup = 3;
+	private static int iterations = 5;
+	private static String only = null;
+	private static String csv = null;
+	private static PrintStream out = System.out;
+
+	private static List<String[]> results = new ArrayList<String[]>();
+
+	private interface Task
+	{
+		void run() throws Exception;
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		SyntheticCorpus generator = new SyntheticCorpus();
+		int threads = 1;
+
+		for (String arg : args)
+		{
+			String[] pair = arg.split("=", 2);
+			String value = pair.length == 2 ? pair[1] : "";
+			switch (pair[0])
+			{
+				case "papers": generator.papers = Integer.parseInt(value); break;
+				case "authors": generator.authors_per_paper = Integer.parseInt(value); break;
+				case "keywords": generator.key_words_per_paper = Integer.parseInt(value); break;
+				case "author_vocabulary": generator.author_count = Integer.parseInt(value); break;
+				case "keyword_vocabulary": generator.key_word_count = Integer.parseInt(value); break;
+				case "skew": generator.skew = Double.parseDouble(value); break;
+				case "warmup": warmup = Integer.parseInt(value); break;
+				case "iterations": iterations = Integer.parseInt(value); break;
+				case "threads": threads = Integer.parseInt(value); break;
+				case "only": only = value; break;
+				case "csv": csv = value; break;
+				default:
+					out.println("Unknown parameter " + arg);
+					return;
+			}
+		}
+
+		out.println("Generating " + generator.papers + " papers (authors " + generator.authors_per_paper + ", keywords " + generator.key_words_per_paper
+				+ ", vocabularies " + generator.author_count + "/" + generator.key_word_count + ", skew " + generator.skew + ")");
+		final List<JSONObject> corpus = generator.generate();
+		final File input = File.createTempFile("parser_benchmark", ".json");
+		final File output = File.createTempFile("parser_benchmark", ".csv");
+		input.deleteOnExit();
+		output.deleteOnExit();
+		SyntheticCorpus.write(corpus, input);
+
+		final SymbolTable author_table = new SymbolTable("author");
+		final SymbolTable key_word_table = new SymbolTable("keyword");
+		final List<Paper> papers = new ArrayList<Paper>(corpus.size());
+		for (JSONObject json : corpus)
+		{
+			papers.add(new Paper(json, author_table, key_word_table));
+		}
+
+		final int n = corpus.size();
+		final int thread_count = threads;
+
+		run("construct_paper", n, () ->
+		{
+			SymbolTable authors = new SymbolTable("author");
+			SymbolTable key_words = new SymbolTable("keyword");
+			for (JSONObject json : corpus)
+			{
+				new Paper(json, authors, key_words);
+			}
+		});
+
+		run("tokenize_titles", n, () ->
+		{
+			TitleTokenizer tokenizer = new TitleTokenizer(new SymbolTable("term"));
+			for (Paper paper : papers)
+			{
+				tokenizer.terms(paper.title);
+			}
+		});
+
+		run("read_json", n, () ->
+		{
+			PaperReader reader = new PaperReader(input.getPath(), Parser.open_input_file(input.getPath()), new SymbolTable("author"), new SymbolTable("keyword"));
+			for (Paper paper : reader)
+			{
+			}
+		});
+
+		run("read_mmap", n, () ->
+		{
+			MappedPaperReader reader = new MappedPaperReader(input.getPath(), new SymbolTable("author"), new SymbolTable("keyword"));
+			for (Paper paper : reader)
+			{
+			}
+		});
+
+		final CooccurrenceGraph[] graphs = new CooccurrenceGraph[4];
+		run("aggregate_mode_1", n, () ->
+		{
+			graphs[1] = new CooccurrenceGraph(author_table, author_table);
+			Parser.aggregate(papers, Parser.COAUTHORED_PAPERS_MODE, graphs[1], thread_count, null);
+		});
+
+		run("aggregate_mode_2", n, () ->
+		{
+			graphs[2] = new CooccurrenceGraph(key_word_table, key_word_table);
+			Parser.aggregate(papers, Parser.TILTES_AND_KEYWORDS_MODE, graphs[2], thread_count, null);
+		});
+
+		run("aggregate_mode_3", n, () ->
+		{
+			graphs[3] = new CooccurrenceGraph(author_table, key_word_table);
+			Parser.aggregate(papers, Parser.AUTHORS_AND_KEYWORDS_MODE, graphs[3], thread_count, null);
+		});
+
+		// The literal Hashtable counting of the first version of the Parser, see HashtableCounting
+		run("baseline_mode_1", n, () -> HashtableCounting.literal_members(corpus, "authors"));
+		run("baseline_mode_2", n, () -> HashtableCounting.literal_members(corpus, "keywords"));
+		run("baseline_mode_3", n, () -> HashtableCounting.literal_authors_and_keywords(corpus));
+
+		for (int mode = 1; mode <= 3; mode++)
+		{
+			final CooccurrenceGraph graph = graphs[mode];
+			if (graph == null)
+			{
+				continue;
+			}
+
+			run("write_edges_mode_" + mode, graph.counts.size(), () -> Parser.write_out_edges(graph, output, false));
+
+			// The dense matrix grows with rows x columns, only write it when that stays reasonable
+			long cells = (long) graph.row_ids().length * graph.column_ids().length;
+			if (cells <= 100000000L)
+			{
+				run("write_matrix_mode_" + mode, graph.counts.size(), () -> Parser.write_out(graph, output, false));
+			}
+			else
+			{
+				out.println("Skipping write_matrix_mode_" + mode + ", the matrix would have " + cells + " cells.");
+			}
+		}
+
+		if (csv != null)
+		{
+			write_csv(generator, threads);
+		}
+	}
+
+	/***
+	 * Runs a benchmark and prints the average and best time per iteration and the throughput.
+	 *
+	 * @param name - The name of the benchmark.
+	 * @param records - The number of records (papers or edges) one iteration handles.
+	 * @param task - One iteration of the benchmark.
+	 */
+	private static void run(String name, long records, Task task) throws Exception
+	{
+		if (only != null && !name.startsWith(only))
+		{
+			return;
+		}
+
+		for (int i = 0; i < warmup; i++)
+		{
+			quietly(task);
+		}
+
+		long total = 0;
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < iterations; i++)
+		{
+			System.gc();
+			long start = System.nanoTime();
+			quietly(task);
+			long time = System.nanoTime() - start;
+
+			total += time;
+			best = Math.min(best, time);
+		}
+
+		double average_ms = total / 1e6 / iterations;
+		double best_ms = best / 1e6;
+		double records_per_second = records / (average_ms / 1000);
+
+		out.println(String.format("%-22s %12.2f ms/op (best %10.2f ms) %14.0f records/s", name, average_ms, best_ms, records_per_second));
+		results.add(new String[] { name, String.format("%.3f", average_ms), String.format("%.3f", best_ms), String.format("%.0f", records_per_second) });
+	}
+
+	/***
+	 * Runs a task with System.out muted, the Parser prints a status line for every file it reads or writes.
+	 */
+	private static void quietly(Task task) throws Exception
+	{
+		System.setOut(new PrintStream(new OutputStream()
+		{
+			@Override
+			public void write(int b)
+			{
+			}
+		}));
+
+		try
+		{
+			task.run();
+		}
+		finally
+		{
+			System.setOut(out);
+		}
+	}
+
+	private static void write_csv(SyntheticCorpus generator, int threads) throws IOException
+	{
+		File file = new File(csv);
+		boolean header = !file.exists();
+		FileWriter writer = new FileWriter(file, true);
+		try
+		{
+			if (header)
+			{
+				writer.write("time,benchmark,papers,authors,keywords,author_vocabulary,keyword_vocabulary,skew,threads,average_ms,best_ms,records_per_second\n");
+			}
+
+			long now = System.currentTimeMillis();
+			for (String[] result : results)
+			{
+				writer.write(now + "," + result[0] + "," + generator.papers + "," + generator.authors_per_paper + "," + generator.key_words_per_paper + ","
+						+ generator.author_count + "," + generator.key_word_count + "," + generator.skew + "," + threads + ","
+						+ result[1] + "," + result[2] + "," + result[3] + "\n");
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+}
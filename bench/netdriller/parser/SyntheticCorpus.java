@@ -0,0 +1,127 @@
+package netdriller.parser;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+public class SyntheticCorpus
+{
+	/***
+	 *
+	 *	This class generates a synthetic input corpus for the benchmarks.
+	 *
+	 *	Authors and keywords are drawn from fixed size vocabularies with a Zipf distribution, so a few names are
+	 *	very common and most are rare, like in real bibliographies. A skew of 0 draws every name equally often.
+	 *	The number of authors and keywords of a paper is drawn uniformly between 1 and twice the given average.
+	 */
+
+	public int papers = 100000;
+	public int authors_per_paper = 4;
+	public int key_words_per_paper = 5;
+	public int author_count = 50000;
+	public int key_word_count = 20000;
+	public double skew = 1.0;
+	public long seed = 42;
+
+	/***
+	 * @return the papers as JSON objects following the input schema.
+	 */
+	@SuppressWarnings("unchecked") // JSONObject and JSONArray are raw collections
+	public List<JSONObject> generate()
+	{
+		Random random = new Random(seed);
+		double[] author_distribution = zipf(author_count, skew);
+		double[] key_word_distribution = zipf(key_word_count, skew);
+
+		List<JSONObject> corpus = new ArrayList<JSONObject>(papers);
+		for (int i = 0; i < papers; i++)
+		{
+			JSONArray authors = new JSONArray();
+			int author_total = 1 + random.nextInt(Math.max(1, authors_per_paper * 2 - 1));
+			for (int a = 0; a < author_total; a++)
+			{
+				authors.add("Author" + draw(author_distribution, random) + ", A.");
+			}
+
+			JSONArray key_words = new JSONArray();
+			int key_word_total = 1 + random.nextInt(Math.max(1, key_words_per_paper * 2 - 1));
+			for (int k = 0; k < key_word_total; k++)
+			{
+				key_words.add("keyword " + draw(key_word_distribution, random));
+			}
+
+			JSONObject paper = new JSONObject();
+			paper.put("authors", authors);
+			paper.put("keywords", key_words);
+			paper.put("title", "Synthetic paper number " + i);
+			paper.put("venue", "Venue " + random.nextInt(100));
+			paper.put("year", Integer.toString(1970 + random.nextInt(50)));
+			corpus.add(paper);
+		}
+
+		return corpus;
+	}
+
+	/***
+	 * Writes the papers out as an input file.
+	 */
+	public static void write(List<JSONObject> corpus, File file) throws IOException
+	{
+		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+		try
+		{
+			writer.write("[\n");
+			for (int i = 0; i < corpus.size(); i++)
+			{
+				if (i > 0)
+				{
+					writer.write(",\n");
+				}
+
+				corpus.get(i).writeJSONString(writer);
+			}
+			writer.write("\n]\n");
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	/***
+	 * @return the cumulative Zipf distribution over the ranks 1 to count.
+	 */
+	private static double[] zipf(int count, double skew)
+	{
+		double[] cumulative = new double[count];
+		double total = 0;
+		for (int rank = 1; rank <= count; rank++)
+		{
+			total += 1.0 / Math.pow(rank, skew);
+			cumulative[rank - 1] = total;
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			cumulative[i] /= total;
+		}
+
+		return cumulative;
+	}
+
+	private static int draw(double[] cumulative, Random random)
+	{
+		int index = Arrays.binarySearch(cumulative, random.nextDouble());
+		return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+	}
+}
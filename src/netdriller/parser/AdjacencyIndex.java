@@ -0,0 +1,124 @@
+package netdriller.parser;
+
+import java.util.Arrays;
+
+public class AdjacencyIndex
+{
+	/***
+	 *
+	 *	This is an index of the neighbours of every node of a counted graph, so the neighbours of a node are found
+	 *	without going through all the edges of the graph, see ParserServer.
+	 *
+	 *	The neighbours are kept in compressed sparse rows: the neighbours of a node and the weights of their edges
+	 *	are at offsets[node] up to offsets[node + 1] of the neighbours and weights arrays. Nodes are numbered like in
+	 *	GraphMetrics, the columns of a two-mode graph come after its rows. Every edge is listed under both of its
+	 *	nodes, an edge from a node to itself only once.
+	 *	The index is built with two passes over the EdgeCursor of the graph, the first counts the neighbours of
+	 *	every node and the second fills them in, so the neighbours of a node are in ID order.
+	 */
+
+	public CooccurrenceGraph graph;
+
+	private int row_count; // The index of the first column node in a two-mode graph
+	private int[] offsets;
+	private int[] neighbours;
+	private int[] weights;
+
+	/***
+	 * @param graph - The counted graph, it is not changed and its edges are read twice.
+	 */
+	public AdjacencyIndex(CooccurrenceGraph graph)
+	{
+		this.graph = graph;
+		this.row_count = graph.rows.size();
+		int size = graph.is_one_mode() ? row_count : row_count + graph.columns.size();
+
+		// Count the neighbours of every node, the offsets are shifted by one so they can be filled in place below
+		offsets = new int[size + 2];
+		EdgeCursor edges = graph.edges();
+		while (edges.next())
+		{
+			int row = edges.row();
+			int column = column_node(edges.column());
+			offsets[row + 2]++;
+			if (column != row)
+			{
+				offsets[column + 2]++;
+			}
+		}
+
+		for (int node = 2; node < offsets.length; node++)
+		{
+			offsets[node] += offsets[node - 1];
+		}
+
+		neighbours = new int[offsets[offsets.length - 1]];
+		weights = new int[neighbours.length];
+		edges = graph.edges();
+		while (edges.next())
+		{
+			int row = edges.row();
+			int column = column_node(edges.column());
+			add(row, column, edges.weight());
+			if (column != row)
+			{
+				add(column, row, edges.weight());
+			}
+		}
+
+		// Every node was filled up to the start of the next node, the offsets are back in place
+		offsets = Arrays.copyOf(offsets, size + 1);
+	}
+
+	private void add(int node, int neighbour, int weight)
+	{
+		int i = offsets[node + 1]++;
+		neighbours[i] = neighbour;
+		weights[i] = weight;
+	}
+
+	/***
+	 * @return the node of a column ID, the same as its row node in a one-mode graph. The node of a row is its ID.
+	 */
+	public int column_node(int column)
+	{
+		return graph.is_one_mode() ? column : row_count + column;
+	}
+
+	/***
+	 * @return the name of a node.
+	 */
+	public String name(int node)
+	{
+		return node < row_count ? graph.rows.name(node) : graph.columns.name(node - row_count);
+	}
+
+	/***
+	 * @return the index of the first neighbour of a node.
+	 */
+	public int start(int node)
+	{
+		return offsets[node];
+	}
+
+	/***
+	 * @return the index after the last neighbour of a node.
+	 */
+	public int end(int node)
+	{
+		return offsets[node + 1];
+	}
+
+	/***
+	 * @param i - The index of a neighbour, from start up to end of its node.
+	 */
+	public int neighbour(int i)
+	{
+		return neighbours[i];
+	}
+
+	public int weight(int i)
+	{
+		return weights[i];
+	}
+}
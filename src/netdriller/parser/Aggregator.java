@@ -0,0 +1,22 @@
+package netdriller.parser;
+
+public interface Aggregator
+{
+	/***
+	 *
+	 *	This is the interface of the modes of the Parser, an aggregator decides which nodes and edges a paper adds to a graph.
+	 *
+	 *	An aggregator does not hold any counts, so the same one counts into every graph of a run, from several threads at once.
+	 *	See CoauthorAggregator, KeywordAggregator and AuthorKeywordAggregator for the three modes.
+	 */
+
+	/***
+	 * @return a new empty graph over the symbol tables of the nodes of this aggregator.
+	 */
+	CooccurrenceGraph new_graph();
+
+	/***
+	 * Adds the nodes and edges of a single paper to a graph made by new_graph.
+	 */
+	void count(Paper paper, CooccurrenceGraph graph);
+}
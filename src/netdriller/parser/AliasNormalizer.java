@@ -0,0 +1,173 @@
+package netdriller.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+public class AliasNormalizer implements NameNormalizer
+{
+	/***
+	 *
+	 *	This is a normalizer of author names based on a dictionary of aliases.
+	 *
+	 *	Names are upper cased and runs of white space are collapsed before they are looked up. A name found in the
+	 *	dictionary is replaced by its canonical name. Other names are kept, or with initials set, reduced to the
+	 *	last name followed by the initials of the given names, so "Rokne, Jon", "Rokne, J." and "J. Rokne" all become "ROKNE, J.".
+	 *
+	 *	Every line of an alias file holds a canonical name followed by its aliases, separated by tabs.
+	 *	Empty lines and lines starting with # are skipped.
+	 */
+
+	private HashMap<String, String> aliases = new HashMap<String, String>();
+	private boolean initials;
+
+	/***
+	 * @param initials - Reduce the names that are not in the dictionary to their last name and initials.
+	 */
+	public AliasNormalizer(boolean initials)
+	{
+		this.initials = initials;
+	}
+
+	/***
+	 * Adds all the aliases of an alias file to the dictionary.
+	 *
+	 * @param file - The alias file.
+	 * @return the number of names that were added.
+	 */
+	public int load(File file) throws IOException
+	{
+		int count = 0;
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+		try
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.trim().isEmpty() || line.startsWith("#"))
+				{
+					continue;
+				}
+
+				String[] names = line.split("\t");
+				String canonical = key(names[0]);
+				for (String name : names)
+				{
+					if (!name.trim().isEmpty())
+					{
+						add(name, canonical);
+						count++;
+					}
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		return count;
+	}
+
+	/***
+	 * Adds a single alias to the dictionary.
+	 */
+	public void add(String alias, String canonical)
+	{
+		aliases.put(key(alias), key(canonical));
+	}
+
+	@Override
+	public String normalize(String name)
+	{
+		String key = key(name);
+		String canonical = aliases.get(key);
+		if (canonical != null)
+		{
+			return canonical;
+		}
+
+		return initials ? initials(key) : key;
+	}
+
+	/***
+	 * @return the name upper cased, trimmed and with every run of white space replaced by a single space.
+	 */
+	private static String key(String name)
+	{
+		StringBuilder key = new StringBuilder(name.length());
+		boolean space = false;
+		for (int i = 0; i < name.length(); i++)
+		{
+			char c = name.charAt(i);
+			if (Character.isWhitespace(c))
+			{
+				space = key.length() > 0;
+			}
+			else
+			{
+				if (space)
+				{
+					key.append(' ');
+					space = false;
+				}
+
+				key.append(c);
+			}
+		}
+
+		return key.toString().toUpperCase();
+	}
+
+	/***
+	 * @return the last name followed by the initials of the given names, "LAST, F. M.".
+	 */
+	private static String initials(String key)
+	{
+		String last;
+		String given;
+		int comma = key.indexOf(',');
+		if (comma >= 0)
+		{
+			// "Last, First Middle"
+			last = key.substring(0, comma).trim();
+			given = key.substring(comma + 1);
+		}
+		else
+		{
+			// "First Middle Last"
+			int space = key.lastIndexOf(' ');
+			if (space < 0)
+			{
+				return key;
+			}
+
+			last = key.substring(space + 1);
+			given = key.substring(0, space);
+		}
+
+		StringBuilder name = new StringBuilder(last);
+		boolean first = true;
+		boolean start = true;
+		for (int i = 0; i < given.length(); i++)
+		{
+			char c = given.charAt(i);
+			if (c == ' ' || c == '.' || c == '-' || c == ',')
+			{
+				start = true;
+			}
+			else if (start)
+			{
+				name.append(first ? ", " : " ").append(c).append('.');
+				first = false;
+				start = false;
+			}
+		}
+
+		return name.toString();
+	}
+}
@@ -0,0 +1,62 @@
+package netdriller.parser;
+
+public class AuthorKeywordAggregator implements Aggregator
+{
+	/***
+	 *
+	 *	This is the aggregator of the authors and keywords mode, a two-mode graph.
+	 *
+	 *	Nodes of the first type are authors. Nodes of the second type are keywords.
+	 *	Edges between the two types of nodes are keywords in papers that authors wrote.
+	 *	The weight of the edge indicates the number of times the author has used the connected keyword.
+	 */
+
+	public SymbolTable author_table;
+	public SymbolTable key_word_table;
+
+	/***
+	 * @param author_table - The symbol table the authors of the papers are interned into.
+	 * @param key_word_table - The symbol table the keywords of the papers are interned into.
+	 */
+	public AuthorKeywordAggregator(SymbolTable author_table, SymbolTable key_word_table)
+	{
+		this.author_table = author_table;
+		this.key_word_table = key_word_table;
+	}
+
+	@Override
+	public CooccurrenceGraph new_graph()
+	{
+		return new CooccurrenceGraph(author_table, key_word_table);
+	}
+
+	/***
+	 * Counts the keywords of a single paper for every author of the paper into a two-mode graph.
+	 */
+	@Override
+	public void count(Paper paper, CooccurrenceGraph graph)
+	{
+		int[] authors = paper.author_ids;
+		int[] keywords = paper.key_word_ids;
+		for(int i = 0; i < authors.length; i++)
+		{
+			// Every author is a node, even if the paper has no keywords, and the paper is counted once for it
+			graph.add_row_papers(authors[i], Paper.is_repeated(authors, i) ? 0 : 1);
+			
+			// Add the occurrence of every keyword of the paper for this author into the graph
+			for(int keyword : keywords)
+			{
+				graph.add(authors[i], keyword);
+			}
+		}
+		
+		// A keyword is only a node if the paper has an author to connect it to
+		if (authors.length > 0)
+		{
+			for(int i = 0; i < keywords.length; i++)
+			{
+				graph.add_column_papers(keywords[i], Paper.is_repeated(keywords, i) ? 0 : 1);
+			}
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package netdriller.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ByteSymbolCache
+{
+	/***
+	 *
+	 *	This is a cache in front of a SymbolTable that is keyed by the raw UTF-8 bytes of a name.
+	 *
+	 *	A name is only decoded into a String (and upper cased, like the Paper constructor does) the first time
+	 *	its bytes are seen. Every later occurrence is found by hashing and comparing the bytes, without allocating.
+	 *	The bytes of all cached names are kept back to back in a single arena.
+	 *	If a normalizer is set it is used in place of upper casing, so every spelling of a name is only normalized once.
+	 */
+
+	private SymbolTable table;
+
+	public NameNormalizer normalizer = null;
+
+	private byte[] arena;
+	private int arena_length;
+
+	// For every cached entry: where its bytes start in the arena, how many there are and the ID they map to
+	private int[] offsets;
+	private int[] lengths;
+	private int[] ids;
+	private int size;
+
+	private int[] slots; // Holds entry + 1 of the bytes hashed to the slot, 0 for an empty slot
+	private int mask;
+
+	/***
+	 * @param table - The symbol table the decoded names are interned into.
+	 */
+	public ByteSymbolCache(SymbolTable table)
+	{
+		this.table = table;
+		this.arena = new byte[1 << 16];
+		this.offsets = new int[1024];
+		this.lengths = new int[1024];
+		this.ids = new int[1024];
+		this.slots = new int[2048];
+		this.mask = slots.length - 1;
+	}
+
+	/***
+	 * @return the symbol table the names are interned into.
+	 */
+	public SymbolTable table()
+	{
+		return table;
+	}
+
+	/***
+	 * @param bytes - A buffer holding the UTF-8 bytes of a name.
+	 * @param length - The number of bytes of the name at the start of the buffer.
+	 * @return the ID of the upper cased name in the symbol table.
+	 */
+	public int intern(byte[] bytes, int length)
+	{
+		int hash = hash(bytes, length);
+		int slot = hash & mask;
+		while (slots[slot] != 0)
+		{
+			int entry = slots[slot] - 1;
+			if (equals(entry, bytes, length))
+			{
+				return ids[entry];
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		// First time these bytes are seen, decode them and intern the name
+		String name = new String(bytes, 0, length, StandardCharsets.UTF_8);
+		int id = table.intern(normalizer == null ? name.toUpperCase() : normalizer.normalize(name));
+		add(slot, bytes, length, id);
+		return id;
+	}
+
+	private boolean equals(int entry, byte[] bytes, int length)
+	{
+		if (lengths[entry] != length)
+		{
+			return false;
+		}
+
+		int offset = offsets[entry];
+		for (int i = 0; i < length; i++)
+		{
+			if (arena[offset + i] != bytes[i])
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void add(int slot, byte[] bytes, int length, int id)
+	{
+		if (arena_length + length > arena.length)
+		{
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arena_length + length));
+		}
+
+		if (size == ids.length)
+		{
+			offsets = Arrays.copyOf(offsets, size * 2);
+			lengths = Arrays.copyOf(lengths, size * 2);
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+
+		System.arraycopy(bytes, 0, arena, arena_length, length);
+		offsets[size] = arena_length;
+		lengths[size] = length;
+		ids[size] = id;
+		arena_length += length;
+
+		slots[slot] = size + 1;
+		size++;
+
+		// Keep the table at most half full
+		if (size * 2 > slots.length)
+		{
+			grow();
+		}
+	}
+
+	private void grow()
+	{
+		slots = new int[slots.length * 2];
+		mask = slots.length - 1;
+
+		for (int entry = 0; entry < size; entry++)
+		{
+			int slot = hash(arena, offsets[entry], lengths[entry]) & mask;
+			while (slots[slot] != 0)
+			{
+				slot = (slot + 1) & mask;
+			}
+
+			slots[slot] = entry + 1;
+		}
+	}
+
+	private static int hash(byte[] bytes, int length)
+	{
+		return hash(bytes, 0, length);
+	}
+
+	private static int hash(byte[] bytes, int offset, int length)
+	{
+		// FNV-1a
+		int hash = 0x811c9dc5;
+		for (int i = offset; i < offset + length; i++)
+		{
+			hash ^= bytes[i];
+			hash *= 0x01000193;
+		}
+
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,52 @@
+package netdriller.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CachedNormalizer implements NameNormalizer
+{
+	/***
+	 *
+	 *	This is a bounded LRU cache of the canonical forms of names in front of another normalizer.
+	 *
+	 *	Most names are repeated many times in the input, so they are only normalized the first time they are seen
+	 *	as long as they stay in the cache. The least recently used name is dropped when the cache is full.
+	 */
+
+	public static int DEFAULT_CAPACITY = 1 << 16;
+
+	private NameNormalizer normalizer;
+	private LinkedHashMap<String, String> cache;
+
+	/***
+	 * @param normalizer - The normalizer of the names that are not in the cache.
+	 * @param capacity - The number of names the cache holds.
+	 */
+	public CachedNormalizer(NameNormalizer normalizer, final int capacity)
+	{
+		this.normalizer = normalizer;
+		this.cache = new LinkedHashMap<String, String>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public synchronized String normalize(String name)
+	{
+		String canonical = cache.get(name);
+		if (canonical == null)
+		{
+			canonical = normalizer.normalize(name);
+			cache.put(name, canonical);
+		}
+
+		return canonical;
+	}
+}
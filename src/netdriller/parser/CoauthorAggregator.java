@@ -0,0 +1,26 @@
+package netdriller.parser;
+
+public class CoauthorAggregator extends OneModeAggregator
+{
+	/***
+	 *
+	 *	This is the aggregator of the co-authored papers mode.
+	 *
+	 *	Nodes are authors and edges between nodes indicate co-authored papers.
+	 *	The weight of the edge is the number of such co-authored papers.
+	 */
+
+	/***
+	 * @param author_table - The symbol table the authors of the papers are interned into.
+	 */
+	public CoauthorAggregator(SymbolTable author_table)
+	{
+		super(author_table);
+	}
+
+	@Override
+	protected int[] members(Paper paper)
+	{
+		return paper.author_ids;
+	}
+}
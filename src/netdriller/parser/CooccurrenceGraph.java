@@ -0,0 +1,367 @@
+package netdriller.parser;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class CooccurrenceGraph
+{
+	/***
+	 *
+	 *	This is the weighted graph that the three modes of the Parser build.
+	 *
+	 *	Rows and columns are interned IDs from a SymbolTable. A one-mode graph (authors to authors, keywords to keywords)
+	 *	uses the same table for both, a two-mode graph (authors to keywords) uses two tables.
+	 *	The weights are kept in a PairCounter keyed by (row, column).
+	 *	A one-mode graph is undirected, so only the upper triangle (row <= column) is stored and every edge is kept once.
+	 *	The lower triangle is filled in by get when the graph is written out.
+	 *	Nodes are always listed in ID order, which is the order they were first seen in the input.
+	 *	Every node also keeps the number of papers it was counted in, a node that was only added with add_row_node
+	 *	or add_column_node (like the nodes of a snapshot of an older version) has 0 papers.
+	 *
+	 *	A graph with a SpillStore writes its counts to disk whenever they grow past its memory budget, the edges
+	 *	are then read back through an EdgeCursor that merges them. Graphs that may spill are read through
+	 *	edges and matrix_edges only. The first read after counting merges all the runs into one, so the later
+	 *	reads and edge_count do not merge them again.
+	 */
+
+	public SymbolTable rows;
+	public SymbolTable columns;
+	public PairCounter counts;
+	public SpillStore spill = null; // Set with spill_to if the counts may not fit in memory
+
+	private BitSet row_nodes;
+	private BitSet column_nodes;
+	private int[] row_papers = new int[0]; // Indexed by ID, grown as new IDs are counted
+	private int[] column_papers = new int[0]; // Not used in a one-mode graph, the rows hold the papers of all the nodes
+	private long max_pairs;
+
+	public CooccurrenceGraph(SymbolTable rows, SymbolTable columns)
+	{
+		this.rows = rows;
+		this.columns = columns;
+		this.counts = new PairCounter();
+		this.row_nodes = new BitSet();
+
+		// In a one-mode graph every node is both a row and a column
+		this.column_nodes = is_one_mode() ? row_nodes : new BitSet();
+	}
+
+	/***
+	 * @return true if the rows and the columns are the same kind of node.
+	 */
+	public boolean is_one_mode()
+	{
+		return rows == columns;
+	}
+
+	public void add_row_node(int row)
+	{
+		row_nodes.set(row);
+	}
+
+	public void add_column_node(int column)
+	{
+		column_nodes.set(column);
+	}
+
+	/***
+	 * Adds a row node and a number of papers to the papers it was counted in.
+	 */
+	public void add_row_papers(int row, int papers)
+	{
+		row_nodes.set(row);
+		row_papers = add_papers(row_papers, row, papers);
+	}
+
+	/***
+	 * Adds a column node and a number of papers to the papers it was counted in.
+	 */
+	public void add_column_papers(int column, int papers)
+	{
+		if (is_one_mode())
+		{
+			add_row_papers(column, papers);
+			return;
+		}
+
+		column_nodes.set(column);
+		column_papers = add_papers(column_papers, column, papers);
+	}
+
+	/***
+	 * @return the number of papers a row node was counted in.
+	 */
+	public int row_papers(int row)
+	{
+		return row < row_papers.length ? row_papers[row] : 0;
+	}
+
+	/***
+	 * @return the number of papers a column node was counted in.
+	 */
+	public int column_papers(int column)
+	{
+		if (is_one_mode())
+		{
+			return row_papers(column);
+		}
+
+		return column < column_papers.length ? column_papers[column] : 0;
+	}
+
+	private static int[] add_papers(int[] papers, int id, int count)
+	{
+		if (id >= papers.length)
+		{
+			papers = Arrays.copyOf(papers, Math.max(id + 1, papers.length * 2));
+		}
+
+		papers[id] += count;
+		return papers;
+	}
+
+	/***
+	 * Lets the graph spill its counts to disk.
+	 *
+	 * @param store - The store the counts are spilled to.
+	 * @param max_pairs - The number of pairs that are counted in memory before they are spilled.
+	 */
+	public void spill_to(SpillStore store, long max_pairs)
+	{
+		this.spill = store;
+		this.max_pairs = max_pairs;
+	}
+
+	/***
+	 * @param parts - The number of partial graphs that are counted at the same time.
+	 * @return an empty graph over the same symbol tables, that spills to the same store with its share of the memory budget.
+	 */
+	public CooccurrenceGraph partial(int parts)
+	{
+		CooccurrenceGraph partial = new CooccurrenceGraph(rows, columns);
+		if (spill != null)
+		{
+			partial.spill_to(spill, Math.max(1, max_pairs / parts));
+		}
+
+		return partial;
+	}
+
+	/***
+	 * @return an empty graph over the same symbol tables, that spills to a store of its own with the same memory budget.
+	 *         The slices of a graph share its budget, see GraphSlices.
+	 */
+	public CooccurrenceGraph slice()
+	{
+		CooccurrenceGraph slice = new CooccurrenceGraph(rows, columns);
+		if (spill != null)
+		{
+			slice.spill_to(spill.sibling(), max_pairs);
+		}
+
+		return slice;
+	}
+
+	/***
+	 * Adds one to the weight of the edge from row to column.
+	 */
+	public void add(int row, int column)
+	{
+		counts.add(key(row, column), 1);
+		spill_if_full();
+	}
+
+	/***
+	 * Adds one to the weight of the undirected edge between first and second in a one-mode graph.
+	 * Both directions are counted, a member that is listed twice in a paper gets a weight of 2 with itself.
+	 */
+	public void add_pair(int first, int second)
+	{
+		// Both directions share the same stored pair, only an edge of a node with itself is counted twice
+		counts.add(key(first, second), first == second ? 2 : 1);
+		spill_if_full();
+	}
+
+	/***
+	 * Adds a weight to an edge.
+	 *
+	 * @param key - The pair the edge is stored under, the upper triangle pair for a one-mode graph.
+	 * @param weight - The weight to add.
+	 */
+	public void add_weight(long key, int weight)
+	{
+		counts.add(key, weight);
+		spill_if_full();
+	}
+
+	private void spill_if_full()
+	{
+		if (spill != null && counts.size() > max_pairs)
+		{
+			spill_counts();
+		}
+	}
+
+	/***
+	 * Writes all the counts in memory to disk, the graph must spill.
+	 */
+	public void spill_counts()
+	{
+		spill.write(counts);
+		counts.clear();
+	}
+
+	/***
+	 * @return the number of pairs that are counted in memory before they are spilled, for a graph that spills.
+	 */
+	public long max_pairs()
+	{
+		return max_pairs;
+	}
+
+	/***
+	 * @return the weight of the edge from row to column, 0 if there is no such edge. The graph must not have spilled.
+	 */
+	public int get(int row, int column)
+	{
+		return counts.get(key(row, column));
+	}
+
+	/***
+	 * @return the key the edge from row to column is stored under, the upper triangle pair for a one-mode graph.
+	 */
+	private long key(int row, int column)
+	{
+		if (is_one_mode() && column < row)
+		{
+			return PairCounter.pack(column, row);
+		}
+
+		return PairCounter.pack(row, column);
+	}
+
+	/***
+	 * Adds all the nodes and edge weights of another graph over the same symbol tables to this graph.
+	 * If this graph spills, the counts of the other graph are spilled as they are and its runs are moved into
+	 * the store of this graph, unless they are in the same store already like the runs of a partial graph.
+	 *
+	 * @param other - The graph to add, it is not changed.
+	 */
+	public void merge(CooccurrenceGraph other)
+	{
+		if (spill != null)
+		{
+			if (other.spill != null && other.spill != spill)
+			{
+				spill.take(other.spill);
+			}
+
+			spill.write(other.counts);
+		}
+		else
+		{
+			counts.merge(other.counts);
+		}
+
+		row_nodes.or(other.row_nodes);
+		column_nodes.or(other.column_nodes);
+		row_papers = merge_papers(row_papers, other.row_papers);
+		column_papers = merge_papers(column_papers, other.column_papers);
+	}
+
+	private static int[] merge_papers(int[] papers, int[] other)
+	{
+		if (other.length > papers.length)
+		{
+			papers = Arrays.copyOf(papers, other.length);
+		}
+
+		for (int id = 0; id < other.length; id++)
+		{
+			papers[id] += other[id];
+		}
+
+		return papers;
+	}
+
+	/***
+	 * @return a cursor over all the edges as they are stored, the upper triangle of a one-mode graph, sorted by row and column.
+	 */
+	public EdgeCursor edges()
+	{
+		if (spill == null)
+		{
+			return counts.cursor(false);
+		}
+
+		compact();
+		return spill.merge(counts, is_one_mode());
+	}
+
+	/***
+	 * @return a cursor over all the cells of the matrix with a weight, both triangles of a one-mode graph, sorted by row and column.
+	 */
+	public EdgeCursor matrix_edges()
+	{
+		if (spill == null)
+		{
+			return counts.cursor(is_one_mode());
+		}
+
+		compact();
+		return spill.merge(counts, false);
+	}
+
+	/***
+	 * @return the number of edges, for a graph that spilled this is counted when its runs are compacted.
+	 */
+	public long edge_count()
+	{
+		if (spill == null || spill.runs() == 0)
+		{
+			return counts.size();
+		}
+
+		compact();
+		return spill.compacted_edges();
+	}
+
+	/***
+	 * Merges the runs of a graph that spilled into one, only the first read after counting merges all the runs.
+	 */
+	private void compact()
+	{
+		if (spill.compact(counts))
+		{
+			counts.clear();
+		}
+	}
+
+	/***
+	 * @return the IDs of all the row nodes in ID order.
+	 */
+	public int[] row_ids()
+	{
+		return ids(row_nodes);
+	}
+
+	/***
+	 * @return the IDs of all the column nodes in ID order.
+	 */
+	public int[] column_ids()
+	{
+		return ids(column_nodes);
+	}
+
+	private static int[] ids(BitSet nodes)
+	{
+		int[] ids = new int[nodes.cardinality()];
+		int i = 0;
+		for (int id = nodes.nextSetBit(0); id >= 0; id = nodes.nextSetBit(id + 1))
+		{
+			ids[i++] = id;
+		}
+
+		return ids;
+	}
+}
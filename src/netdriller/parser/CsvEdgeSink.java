@@ -0,0 +1,69 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+
+public class CsvEdgeSink implements GraphSink
+{
+	/***
+	 *
+	 *	This sink writes a graph as a CSV edge list with a source,target,weight line for every edge of the graph.
+	 *
+	 *	Only edges with a weight are written, so the size of the file depends on the number of edges and not on the number of nodes.
+	 *	Edges of a one-mode graph are undirected, so every pair of nodes is written once.
+	 */
+
+	public boolean gzip;
+
+	/***
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public CsvEdgeSink(boolean gzip)
+	{
+		this.gzip = gzip;
+	}
+
+	@Override
+	public String description()
+	{
+		return "CSV edge list";
+	}
+
+	@Override
+	public void write(CooccurrenceGraph graph, File output_file) throws IOException
+	{
+		OutputWriter writer = new OutputWriter(output_file, gzip); // Overwrites any other output file!
+		try
+		{
+			// Every name is written many times, so all of them are escaped once up front
+			byte[][] sources = CsvMatrixSink.escape(graph.rows);
+			byte[][] targets = graph.is_one_mode() ? sources : CsvMatrixSink.escape(graph.columns);
+			
+			writer.write("source,target,weight");
+			writer.end_line();
+			
+			// A one-mode graph only stores the upper triangle, so every undirected pair is already there once
+			EdgeCursor edges = graph.edges();
+			try
+			{
+				while (edges.next())
+				{
+					writer.write(sources[edges.row()]);
+					writer.write(',');
+					writer.write(targets[edges.column()]);
+					writer.write(',');
+					writer.write_int(edges.weight());
+					writer.end_line();
+				}
+			}
+			finally
+			{
+				edges.close();
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class CsvMatrixSink implements GraphSink
+{
+	/***
+	 *
+	 *	This sink writes a graph as a full adjacency matrix in a CSV file, the default output format.
+	 *
+	 *	The columns of the graph are the column headers and the rows of the graph are the rows of the file (keywords or authors).
+	 *	The file loads in NetDriller under import graph with "CSV file" and the "The file contains headers" checkbox marked.
+	 *	Names are written without commas, see escape, and the other CSV files use the same names.
+	 */
+
+	public boolean gzip;
+
+	/***
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public CsvMatrixSink(boolean gzip)
+	{
+		this.gzip = gzip;
+	}
+
+	/***
+	 * @return the names of all the symbols of a table as they are written in a CSV file, indexed by their IDs.
+	 */
+	public static byte[][] escape(SymbolTable table)
+	{
+		byte[][] names = new byte[table.size()][];
+		for (int id = 0; id < names.length; id++)
+		{
+			names[id] = escape(table.name(id));
+		}
+
+		return names;
+	}
+
+	/***
+	 * @return the name as it is written in a CSV file, without any commas.
+	 */
+	public static byte[] escape(String name)
+	{
+		return name.replace(",", "").getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String description()
+	{
+		return "CSV file";
+	}
+
+	@Override
+	public void write(CooccurrenceGraph graph, File output_file) throws IOException
+	{
+		// Write CSV file
+		OutputWriter writer = new OutputWriter(output_file, gzip); // Overwrites any other output file!
+		try
+		{
+			int[] column_headers = graph.column_ids();
+			int[] row_start = graph.row_ids();
+			
+			// Create all the columns
+			for (int column_heading : column_headers)
+			{
+				writer.write(',');
+				writer.write(escape(graph.columns.name(column_heading)));
+			}
+			writer.end_line();
+			
+			// Fill the rest of the CSV file
+			// The cells with a weight come sorted by row and column, the same order the cells are written in
+			EdgeCursor cells = graph.matrix_edges();
+			try
+			{
+				boolean more = cells.next();
+				for (int row_heading : row_start)
+				{
+					writer.write(escape(graph.rows.name(row_heading)));
+					
+					for (int column_heading : column_headers)
+					{
+						while (more && (cells.row() < row_heading || (cells.row() == row_heading && cells.column() < column_heading)))
+						{
+							more = cells.next();
+						}
+						
+						writer.write(',');
+						if (more && cells.row() == row_heading && cells.column() == column_heading)
+						{
+							writer.write_int(cells.weight());
+							more = cells.next();
+						}
+						else
+						{
+							writer.write('0');
+						}
+					}
+					
+					writer.end_line();
+				}
+			}
+			finally
+			{
+				cells.close();
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+
+public class CsvNodeSink implements GraphSink
+{
+	/***
+	 *
+	 *	This sink writes a CSV list of all the nodes of a graph with their type (author or keyword), see --nodes.
+	 */
+
+	public boolean gzip;
+
+	/***
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public CsvNodeSink(boolean gzip)
+	{
+		this.gzip = gzip;
+	}
+
+	@Override
+	public String description()
+	{
+		return "CSV node list";
+	}
+
+	@Override
+	public void write(CooccurrenceGraph graph, File output_file) throws IOException
+	{
+		OutputWriter writer = new OutputWriter(output_file, gzip); // Overwrites any other output file!
+		try
+		{
+			writer.write("id,type");
+			writer.end_line();
+			
+			byte[] row_kind = CsvMatrixSink.escape(graph.rows.kind);
+			for (int row : graph.row_ids())
+			{
+				writer.write(CsvMatrixSink.escape(graph.rows.name(row)));
+				writer.write(',');
+				writer.write(row_kind);
+				writer.end_line();
+			}
+			
+			if (!graph.is_one_mode())
+			{
+				byte[] column_kind = CsvMatrixSink.escape(graph.columns.kind);
+				for (int column : graph.column_ids())
+				{
+					writer.write(CsvMatrixSink.escape(graph.columns.name(column)));
+					writer.write(',');
+					writer.write(column_kind);
+					writer.end_line();
+				}
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package netdriller.parser;
+
+public interface EdgeCursor
+{
+	/***
+	 *
+	 *	This is a cursor over the weighted edges of a graph, sorted by row and then by column.
+	 *
+	 *	The edges can come from the counts in memory or be merged from the sorted runs a graph spilled to disk,
+	 *	so the writers stream through them in the same order either way.
+	 */
+
+	/***
+	 * Moves to the next edge, a new cursor is before the first edge.
+	 *
+	 * @return false if there are no more edges.
+	 */
+	boolean next();
+
+	int row();
+
+	int column();
+
+	int weight();
+
+	/***
+	 * Lets go of the files of the cursor, this is done by next after the last edge as well.
+	 */
+	void close();
+}
@@ -0,0 +1,111 @@
+package netdriller.parser;
+
+import java.io.IOException;
+
+public class GexfSink extends XmlGraphSink
+{
+	/***
+	 *
+	 *	This sink writes a graph as a GEXF 1.3 file, the native format of Gephi, see --format=gexf.
+	 *
+	 *	Every node has its name as its label and the attributes type (author, keyword or term) and papers (the number
+	 *	of papers it was counted in), every edge has its weight.
+	 */
+
+	private static byte[] NODE_START = bytes("\t\t\t<node id=\"");
+	private static byte[] NODE_LABEL = bytes("\" label=\"");
+	private static byte[] NODE_TYPE = bytes("\"><attvalues><attvalue for=\"type\" value=\"");
+	private static byte[] NODE_PAPERS = bytes("\"/><attvalue for=\"papers\" value=\"");
+	private static byte[] NODE_END = bytes("\"/></attvalues></node>");
+	private static byte[] EDGE_START = bytes("\t\t\t<edge id=\"");
+	private static byte[] EDGE_SOURCE = bytes("\" source=\"");
+	private static byte[] EDGE_TARGET = bytes("\" target=\"");
+	private static byte[] EDGE_WEIGHT = bytes("\" weight=\"");
+	private static byte[] EDGE_END = bytes("\"/>");
+
+	/***
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public GexfSink(boolean gzip)
+	{
+		super(gzip);
+	}
+
+	@Override
+	protected String format()
+	{
+		return "GEXF";
+	}
+
+	@Override
+	protected void begin(OutputWriter writer, CooccurrenceGraph graph) throws IOException
+	{
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+		writer.end_line();
+		writer.write("<gexf xmlns=\"http://gexf.net/1.3\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+				+ " xsi:schemaLocation=\"http://gexf.net/1.3 http://gexf.net/1.3/gexf.xsd\" version=\"1.3\">");
+		writer.end_line();
+		writer.write("\t<graph mode=\"static\" defaultedgetype=\"undirected\">");
+		writer.end_line();
+		writer.write("\t\t<attributes class=\"node\">");
+		writer.end_line();
+		writer.write("\t\t\t<attribute id=\"type\" title=\"type\" type=\"string\"/>");
+		writer.end_line();
+		writer.write("\t\t\t<attribute id=\"papers\" title=\"papers\" type=\"integer\"/>");
+		writer.end_line();
+		writer.write("\t\t</attributes>");
+		writer.end_line();
+		writer.write("\t\t<nodes>");
+		writer.end_line();
+	}
+
+	@Override
+	protected void node(OutputWriter writer, byte[] kind, int id, byte[] name, int papers) throws IOException
+	{
+		writer.write(NODE_START);
+		write_id(writer, kind, id);
+		writer.write(NODE_LABEL);
+		writer.write(name);
+		writer.write(NODE_TYPE);
+		writer.write(kind);
+		writer.write(NODE_PAPERS);
+		writer.write_int(papers);
+		writer.write(NODE_END);
+		writer.end_line();
+	}
+
+	@Override
+	protected void between(OutputWriter writer) throws IOException
+	{
+		writer.write("\t\t</nodes>");
+		writer.end_line();
+		writer.write("\t\t<edges>");
+		writer.end_line();
+	}
+
+	@Override
+	protected void edge(OutputWriter writer, long index, byte[] source_kind, int source, byte[] target_kind, int target, int weight) throws IOException
+	{
+		writer.write(EDGE_START);
+		writer.write_long(index);
+		writer.write(EDGE_SOURCE);
+		write_id(writer, source_kind, source);
+		writer.write(EDGE_TARGET);
+		write_id(writer, target_kind, target);
+		writer.write(EDGE_WEIGHT);
+		writer.write_int(weight);
+		writer.write(EDGE_END);
+		writer.end_line();
+	}
+
+	@Override
+	protected void end(OutputWriter writer) throws IOException
+	{
+		writer.write("\t\t</edges>");
+		writer.end_line();
+		writer.write("\t</graph>");
+		writer.end_line();
+		writer.write("</gexf>");
+		writer.end_line();
+	}
+}
@@ -0,0 +1,101 @@
+package netdriller.parser;
+
+import java.io.IOException;
+
+public class GraphMLSink extends XmlGraphSink
+{
+	/***
+	 *
+	 *	This sink writes a graph as a GraphML file, which loads in Gephi, yEd, Cytoscape and NetworkX, see --format=graphml.
+	 *
+	 *	Every node has the data keys label (its name), type (author, keyword or term) and papers (the number of papers
+	 *	it was counted in), every edge has the data key weight.
+	 */
+
+	private static byte[] NODE_START = bytes("\t\t<node id=\"");
+	private static byte[] NODE_LABEL = bytes("\"><data key=\"label\">");
+	private static byte[] NODE_TYPE = bytes("</data><data key=\"type\">");
+	private static byte[] NODE_PAPERS = bytes("</data><data key=\"papers\">");
+	private static byte[] NODE_END = bytes("</data></node>");
+	private static byte[] EDGE_START = bytes("\t\t<edge source=\"");
+	private static byte[] EDGE_TARGET = bytes("\" target=\"");
+	private static byte[] EDGE_WEIGHT = bytes("\"><data key=\"weight\">");
+	private static byte[] EDGE_END = bytes("</data></edge>");
+
+	/***
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public GraphMLSink(boolean gzip)
+	{
+		super(gzip);
+	}
+
+	@Override
+	protected String format()
+	{
+		return "GraphML";
+	}
+
+	@Override
+	protected void begin(OutputWriter writer, CooccurrenceGraph graph) throws IOException
+	{
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+		writer.end_line();
+		writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+				+ " xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">");
+		writer.end_line();
+		writer.write("\t<key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>");
+		writer.end_line();
+		writer.write("\t<key id=\"type\" for=\"node\" attr.name=\"type\" attr.type=\"string\"/>");
+		writer.end_line();
+		writer.write("\t<key id=\"papers\" for=\"node\" attr.name=\"papers\" attr.type=\"int\"/>");
+		writer.end_line();
+		writer.write("\t<key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"int\"/>");
+		writer.end_line();
+		writer.write("\t<graph id=\"G\" edgedefault=\"undirected\">");
+		writer.end_line();
+	}
+
+	@Override
+	protected void node(OutputWriter writer, byte[] kind, int id, byte[] name, int papers) throws IOException
+	{
+		writer.write(NODE_START);
+		write_id(writer, kind, id);
+		writer.write(NODE_LABEL);
+		writer.write(name);
+		writer.write(NODE_TYPE);
+		writer.write(kind);
+		writer.write(NODE_PAPERS);
+		writer.write_int(papers);
+		writer.write(NODE_END);
+		writer.end_line();
+	}
+
+	@Override
+	protected void between(OutputWriter writer) throws IOException
+	{
+		// GraphML has no section for the edges, they follow the nodes
+	}
+
+	@Override
+	protected void edge(OutputWriter writer, long index, byte[] source_kind, int source, byte[] target_kind, int target, int weight) throws IOException
+	{
+		writer.write(EDGE_START);
+		write_id(writer, source_kind, source);
+		writer.write(EDGE_TARGET);
+		write_id(writer, target_kind, target);
+		writer.write(EDGE_WEIGHT);
+		writer.write_int(weight);
+		writer.write(EDGE_END);
+		writer.end_line();
+	}
+
+	@Override
+	protected void end(OutputWriter writer) throws IOException
+	{
+		writer.write("\t</graph>");
+		writer.end_line();
+		writer.write("</graphml>");
+		writer.end_line();
+	}
+}
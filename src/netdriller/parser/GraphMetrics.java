@@ -0,0 +1,456 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.json.simple.JSONValue;
+
+public class GraphMetrics
+{
+	/***
+	 *
+	 *	This class computes the metrics of a counted graph straight from its edges, so the output file does not
+	 *	have to be loaded into another tool to get them, see --metrics.
+	 *
+	 *	For every node it finds the degree (the number of its neighbours), the weighted degree (the sum of the
+	 *	weights of its edges), its top collaborator (the neighbour of its heaviest edge, the first one in ID order
+	 *	on a tie) and the size of its connected component. All of them are kept in primitive arrays indexed by node,
+	 *	the columns of a two-mode graph come after its rows.
+	 *
+	 *	The edges are streamed once through the EdgeCursor of the graph, so a graph that spilled to disk works the
+	 *	same way. They are handed to a fork-join pool in blocks, the nodes are split into one range per worker and
+	 *	every worker counts the edges of a block into its own range of the arrays, so the arrays are not copied per
+	 *	worker. The next block is read while the workers count the last one. Components are found with a union-find
+	 *	over the nodes on the reading thread. An edge from a node to itself (an author listed twice
+	 *	on a paper) does not make the node its own neighbour.
+	 */
+
+	public static int TOP_NODES = 20; // Number of nodes listed in the summary for every ranking
+	public static int BLOCK_SIZE = 1 << 16; // Number of edges handed to a worker at a time
+
+	public CooccurrenceGraph graph;
+
+	public int[] degree;
+	public long[] weighted_degree;
+	public int[] top_collaborator; // -1 for a node without neighbours
+	public int[] top_weight;
+	public int[] component_size;
+
+	public long nodes;
+	public long edges;
+	public long total_weight;
+	public int components;
+	public int largest_component;
+	public int isolated_nodes;
+
+	private int row_count; // The index of the first column node in a two-mode graph
+	private int[] node_ids; // The indexes of all the nodes of the graph
+	private int[] parent; // The union-find forest, a root holds minus the size of its tree
+
+	private GraphMetrics(CooccurrenceGraph graph)
+	{
+		this.graph = graph;
+		this.row_count = graph.rows.size();
+		int size = graph.is_one_mode() ? row_count : row_count + graph.columns.size();
+		this.parent = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			parent[i] = -1;
+		}
+	}
+
+	/***
+	 * @param graph - The counted graph, it is not changed.
+	 * @param threads - The number of threads to count the edges on, 1 counts on the calling thread.
+	 * @return the metrics of the graph.
+	 */
+	public static GraphMetrics compute(CooccurrenceGraph graph, int threads)
+	{
+		GraphMetrics metrics = new GraphMetrics(graph);
+		Degrees totals = new Degrees(metrics.parent.length);
+
+		if (threads > 1)
+		{
+			metrics.count_in_parallel(totals, threads);
+		}
+		else
+		{
+			Block block = new Block();
+			EdgeCursor cursor = graph.edges();
+			while (metrics.read(cursor, block))
+			{
+				totals.add(block, metrics.graph.is_one_mode(), 0, metrics.parent.length);
+			}
+		}
+
+		metrics.degree = totals.degree;
+		metrics.weighted_degree = totals.weighted_degree;
+		metrics.top_collaborator = totals.top_collaborator;
+		metrics.top_weight = totals.top_weight;
+		metrics.summarize();
+		return metrics;
+	}
+
+	/***
+	 * @return the name of a node.
+	 */
+	public String name(int node)
+	{
+		return node < row_count ? graph.rows.name(node) : graph.columns.name(node - row_count);
+	}
+
+	/***
+	 * @return the type of a node, author or keyword.
+	 */
+	public String kind(int node)
+	{
+		return node < row_count ? graph.rows.kind : graph.columns.kind;
+	}
+
+	/***
+	 * @param by_degree - Rank by degree instead of weighted degree.
+	 * @return the nodes with the highest degree or weighted degree, highest first, at most TOP_NODES of them.
+	 */
+	public int[] top_nodes(final boolean by_degree)
+	{
+		Comparator<Integer> order = new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer a, Integer b)
+			{
+				// Higher first, then the first node in ID order
+				int by_value = by_degree ? Integer.compare(degree[b], degree[a]) : Long.compare(weighted_degree[b], weighted_degree[a]);
+				return by_value != 0 ? by_value : Integer.compare(a, b);
+			}
+		};
+
+		// A bounded heap with the lowest of the top nodes at its head
+		PriorityQueue<Integer> heap = new PriorityQueue<Integer>(TOP_NODES + 1, Collections.reverseOrder(order));
+		for (int node : node_ids)
+		{
+			heap.add(node);
+			if (heap.size() > TOP_NODES)
+			{
+				heap.poll();
+			}
+		}
+
+		List<Integer> top = new ArrayList<Integer>(heap);
+		Collections.sort(top, order);
+		int[] nodes = new int[top.size()];
+		for (int i = 0; i < nodes.length; i++)
+		{
+			nodes[i] = top.get(i);
+		}
+
+		return nodes;
+	}
+
+	/***
+	 * Writes out the summary of the graph and its top nodes by degree and by weighted degree.
+	 *
+	 * @param file - The summary file, JSON if the name ends with .json and CSV otherwise.
+	 */
+	public void write(File file) throws IOException
+	{
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file, false), StandardCharsets.UTF_8);
+		try
+		{
+			if (file.getName().toLowerCase().endsWith(".json"))
+			{
+				Map<String, Object> summary = new LinkedHashMap<String, Object>();
+				summary.put("nodes", nodes);
+				summary.put("edges", edges);
+				summary.put("total_weight", total_weight);
+				summary.put("components", components);
+				summary.put("largest_component", largest_component);
+				summary.put("isolated_nodes", isolated_nodes);
+				summary.put("top_by_degree", describe(top_nodes(true)));
+				summary.put("top_by_weighted_degree", describe(top_nodes(false)));
+
+				JSONValue.writeJSONString(summary, writer);
+				writer.write("\n");
+			}
+			else
+			{
+				writer.write("ranking,rank,node,type,degree,weighted_degree,component_size,top_collaborator,top_weight,nodes,edges,total_weight,components,largest_component,isolated_nodes\n");
+				String totals = "," + nodes + "," + edges + "," + total_weight + "," + components + "," + largest_component + "," + isolated_nodes + "\n";
+				String[] rankings = { "degree", "weighted_degree" };
+				for (String ranking : rankings)
+				{
+					int[] top = top_nodes(ranking.equals("degree"));
+					for (int i = 0; i < top.length; i++)
+					{
+						int node = top[i];
+						writer.write(ranking + "," + (i + 1) + "," + escape(name(node)) + "," + kind(node) + "," + degree[node] + "," + weighted_degree[node] + "," + component_size[node]
+								+ "," + (top_collaborator[node] < 0 ? "" : escape(name(top_collaborator[node]))) + "," + top_weight[node] + totals);
+					}
+				}
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	private List<Object> describe(int[] top)
+	{
+		List<Object> nodes = new ArrayList<Object>();
+		for (int node : top)
+		{
+			Map<String, Object> described = new LinkedHashMap<String, Object>();
+			described.put("node", name(node));
+			described.put("type", kind(node));
+			described.put("degree", degree[node]);
+			described.put("weighted_degree", weighted_degree[node]);
+			described.put("component_size", component_size[node]);
+			described.put("top_collaborator", top_collaborator[node] < 0 ? null : name(top_collaborator[node]));
+			described.put("top_weight", top_weight[node]);
+			nodes.add(described);
+		}
+
+		return nodes;
+	}
+
+	private static String escape(String name)
+	{
+		// Without commas, like the names of CsvMatrixSink.escape
+		return name.replace(",", "");
+	}
+
+	/***
+	 * Reads the next block of edges and adds them to the union-find.
+	 *
+	 * @return false if there were no more edges.
+	 */
+	private boolean read(EdgeCursor cursor, Block block)
+	{
+		block.size = 0;
+		int offset = graph.is_one_mode() ? 0 : row_count;
+		while (block.size < BLOCK_SIZE && cursor.next())
+		{
+			int row = cursor.row();
+			int column = cursor.column() + offset;
+			block.rows[block.size] = row;
+			block.columns[block.size] = column;
+			block.weights[block.size] = cursor.weight();
+			block.size++;
+
+			edges++;
+			total_weight += cursor.weight();
+			union(row, column);
+		}
+
+		return block.size > 0;
+	}
+
+	private void count_in_parallel(final Degrees totals, int threads)
+	{
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		final boolean one_mode = graph.is_one_mode();
+		int size = parent.length;
+		int range = Math.max(1, (size + threads - 1) / threads);
+
+		try
+		{
+			ArrayList<ForkJoinTask<?>> ranges = new ArrayList<ForkJoinTask<?>>();
+			EdgeCursor cursor = graph.edges();
+			Block block = new Block();
+			Block next = new Block();
+			while (read(cursor, block))
+			{
+				// The last block is counted before the same ranges count this one, joining also rethrows anything a
+				// worker has thrown
+				for (ForkJoinTask<?> task : ranges)
+				{
+					task.join();
+				}
+				ranges.clear();
+
+				final Block counted = block;
+				for (int from = 0; from < size; from += range)
+				{
+					final int first = from;
+					final int last = Math.min(size, from + range);
+					ranges.add(pool.submit(new RecursiveAction()
+					{
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						protected void compute()
+						{
+							totals.add(counted, one_mode, first, last);
+						}
+					}));
+				}
+
+				// Read into the other block while this one is counted
+				block = next;
+				next = counted;
+			}
+
+			for (ForkJoinTask<?> task : ranges)
+			{
+				task.join();
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/***
+	 * Counts the nodes, the isolated nodes and the components once the edges were read.
+	 */
+	private void summarize()
+	{
+		int[] rows = graph.row_ids();
+		int[] columns = graph.is_one_mode() ? new int[0] : graph.column_ids();
+		node_ids = new int[rows.length + columns.length];
+		System.arraycopy(rows, 0, node_ids, 0, rows.length);
+		for (int i = 0; i < columns.length; i++)
+		{
+			node_ids[rows.length + i] = columns[i] + row_count;
+		}
+
+		nodes = node_ids.length;
+		component_size = new int[parent.length];
+		for (int node : node_ids)
+		{
+			int root = find(node);
+			component_size[node] = -parent[root];
+			if (root == node)
+			{
+				components++;
+				largest_component = Math.max(largest_component, -parent[root]);
+			}
+
+			if (degree[node] == 0)
+			{
+				isolated_nodes++;
+			}
+		}
+	}
+
+	private int find(int node)
+	{
+		while (parent[node] >= 0)
+		{
+			// Path halving, every node on the way points to its grandparent
+			if (parent[parent[node]] >= 0)
+			{
+				parent[node] = parent[parent[node]];
+			}
+			node = parent[node];
+		}
+
+		return node;
+	}
+
+	private void union(int a, int b)
+	{
+		int root_a = find(a);
+		int root_b = find(b);
+		if (root_a == root_b)
+		{
+			return;
+		}
+
+		// The smaller tree goes under the larger one
+		if (parent[root_a] > parent[root_b])
+		{
+			int swap = root_a;
+			root_a = root_b;
+			root_b = swap;
+		}
+
+		parent[root_a] += parent[root_b];
+		parent[root_b] = root_a;
+	}
+
+	/***
+	 * A block of edges, the columns of a two-mode graph are already offset by the number of rows.
+	 */
+	private static class Block
+	{
+		int[] rows = new int[BLOCK_SIZE];
+		int[] columns = new int[BLOCK_SIZE];
+		int[] weights = new int[BLOCK_SIZE];
+		int size;
+	}
+
+	/***
+	 * The degrees and top collaborators of all the nodes.
+	 */
+	private static class Degrees
+	{
+		int[] degree;
+		long[] weighted_degree;
+		int[] top_collaborator;
+		int[] top_weight;
+
+		Degrees(int size)
+		{
+			degree = new int[size];
+			weighted_degree = new long[size];
+			top_collaborator = new int[size];
+			top_weight = new int[size];
+			for (int i = 0; i < size; i++)
+			{
+				top_collaborator[i] = -1;
+			}
+		}
+
+		/***
+		 * Counts the edges of a block for the nodes from first up to last, the other nodes are not touched.
+		 */
+		void add(Block block, boolean one_mode, int first, int last)
+		{
+			for (int i = 0; i < block.size; i++)
+			{
+				int row = block.rows[i];
+				int column = block.columns[i];
+				if (one_mode && row == column)
+				{
+					continue;
+				}
+
+				if (row >= first && row < last)
+				{
+					add(row, column, block.weights[i]);
+				}
+				if (column >= first && column < last)
+				{
+					add(column, row, block.weights[i]);
+				}
+			}
+		}
+
+		private void add(int node, int neighbour, int weight)
+		{
+			degree[node]++;
+			weighted_degree[node] += weight;
+			if (weight > top_weight[node] || (weight == top_weight[node] && neighbour < top_collaborator[node]))
+			{
+				top_collaborator[node] = neighbour;
+				top_weight[node] = weight;
+			}
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package netdriller.parser;
+
+public class GraphPruner
+{
+	/***
+	 *
+	 *	This class prunes a graph before it is written out, so the size of the output stays bounded on large inputs.
+	 *
+	 *	An edge is kept if its weight is at least the minimum weight and, with a top K, if it is one of the K heaviest
+	 *	edges of either of its nodes. Edges that tie with the K-th heaviest edge of a node are kept as well.
+	 *	The K-th heaviest weight of every node is found with a bounded min-heap of K weights per node, in a single
+	 *	pass over the edges. Nodes that are left without any edge are not written out.
+	 *	The kept edges are not copied, they are filtered from the cursors of the counted graph while they are written,
+	 *	so a graph that spilled to disk stays within its memory budget when it is pruned. Only the nodes that keep
+	 *	an edge and the thresholds of the nodes are held in memory.
+	 *
+	 *	Only the written graph is pruned, a snapshot keeps all the counts so later runs can still add to them.
+	 */
+
+	/***
+	 * @param graph - The counted graph, it is not changed.
+	 * @param min_weight - The lowest weight of an edge that is kept, 1 keeps every edge.
+	 * @param top_k - The number of heaviest edges kept for every node, 0 keeps every edge.
+	 * @return the pruned graph over the same symbol tables, or the graph itself if nothing is pruned.
+	 *         The pruned graph only holds its nodes, its edges are read from the counted graph through edges and matrix_edges.
+	 */
+	public static CooccurrenceGraph prune(CooccurrenceGraph graph, int min_weight, int top_k)
+	{
+		if (min_weight <= 1 && top_k <= 0)
+		{
+			return graph;
+		}
+
+		// The K-th heaviest weight of every node, a node with less than K edges keeps all of them
+		int[] row_thresholds = null;
+		int[] column_thresholds = null;
+		if (top_k > 0)
+		{
+			int[][] row_heaps = new int[graph.rows.size()][];
+			int[] row_sizes = new int[row_heaps.length];
+			int[][] column_heaps = row_heaps;
+			int[] column_sizes = row_sizes;
+			if (!graph.is_one_mode())
+			{
+				column_heaps = new int[graph.columns.size()][];
+				column_sizes = new int[column_heaps.length];
+			}
+
+			EdgeCursor edges = graph.edges();
+			while (edges.next())
+			{
+				int weight = edges.weight();
+				if (weight < min_weight)
+				{
+					continue;
+				}
+
+				int row = edges.row();
+				int column = edges.column();
+				offer(row_heaps, row_sizes, row, weight, top_k);
+				if (!graph.is_one_mode() || column != row)
+				{
+					offer(column_heaps, column_sizes, column, weight, top_k);
+				}
+			}
+
+			row_thresholds = thresholds(row_heaps, row_sizes, top_k);
+			column_thresholds = graph.is_one_mode() ? row_thresholds : thresholds(column_heaps, column_sizes, top_k);
+		}
+
+		// The nodes that keep an edge are found first, as the sinks write all the nodes before the edges
+		PrunedGraph pruned = new PrunedGraph(graph, min_weight, row_thresholds, column_thresholds);
+		EdgeCursor edges = pruned.edges();
+		while (edges.next())
+		{
+			pruned.add_row_node(edges.row());
+			pruned.add_column_node(edges.column());
+			pruned.edge_count++;
+		}
+
+		// The nodes that are written keep the number of papers they were counted in
+		for (int row : pruned.row_ids())
+		{
+			pruned.add_row_papers(row, graph.row_papers(row));
+		}
+
+		if (!pruned.is_one_mode())
+		{
+			for (int column : pruned.column_ids())
+			{
+				pruned.add_column_papers(column, graph.column_papers(column));
+			}
+		}
+
+		return pruned;
+	}
+
+	/***
+	 * Offers the weight of an edge to the heap of the K heaviest weights of a node.
+	 */
+	private static void offer(int[][] heaps, int[] sizes, int node, int weight, int top_k)
+	{
+		int[] heap = heaps[node];
+		int size = sizes[node];
+
+		if (size < top_k)
+		{
+			// The heap grows as it is filled, most nodes have far fewer than K edges
+			if (heap == null || heap.length == size)
+			{
+				int[] grown = new int[Math.min(top_k, Math.max(4, size * 2))];
+				if (heap != null)
+				{
+					System.arraycopy(heap, 0, grown, 0, size);
+				}
+
+				heap = grown;
+				heaps[node] = heap;
+			}
+
+			// Sift the new weight up
+			int i = size;
+			while (i > 0 && heap[(i - 1) / 2] > weight)
+			{
+				heap[i] = heap[(i - 1) / 2];
+				i = (i - 1) / 2;
+			}
+
+			heap[i] = weight;
+			sizes[node] = size + 1;
+		}
+		else if (weight > heap[0])
+		{
+			// Replace the lightest of the K weights and sift it down
+			int i = 0;
+			while (true)
+			{
+				int child = i * 2 + 1;
+				if (child >= size)
+				{
+					break;
+				}
+
+				if (child + 1 < size && heap[child + 1] < heap[child])
+				{
+					child++;
+				}
+
+				if (heap[child] >= weight)
+				{
+					break;
+				}
+
+				heap[i] = heap[child];
+				i = child;
+			}
+
+			heap[i] = weight;
+		}
+	}
+
+	/***
+	 * @return the lowest weight an edge of every node needs to be among its K heaviest edges, 0 for nodes with less than K edges.
+	 */
+	private static int[] thresholds(int[][] heaps, int[] sizes, int top_k)
+	{
+		int[] thresholds = new int[heaps.length];
+		for (int node = 0; node < heaps.length; node++)
+		{
+			if (sizes[node] == top_k)
+			{
+				thresholds[node] = heaps[node][0];
+			}
+
+			// The heap is not needed any more
+			heaps[node] = null;
+		}
+
+		return thresholds;
+	}
+
+	/***
+	 * The pruned graph, its nodes are held in memory and its edges are the edges of the counted graph that are kept.
+	 */
+	private static class PrunedGraph extends CooccurrenceGraph
+	{
+		private CooccurrenceGraph graph;
+		private int min_weight;
+		private int[] row_thresholds; // Null without a top K
+		private int[] column_thresholds;
+		private long edge_count;
+
+		PrunedGraph(CooccurrenceGraph graph, int min_weight, int[] row_thresholds, int[] column_thresholds)
+		{
+			super(graph.rows, graph.columns);
+			this.graph = graph;
+			this.min_weight = min_weight;
+			this.row_thresholds = row_thresholds;
+			this.column_thresholds = column_thresholds;
+		}
+
+		@Override
+		public EdgeCursor edges()
+		{
+			return new KeptEdges(graph.edges(), this);
+		}
+
+		@Override
+		public EdgeCursor matrix_edges()
+		{
+			return new KeptEdges(graph.matrix_edges(), this);
+		}
+
+		@Override
+		public long edge_count()
+		{
+			return edge_count;
+		}
+
+		boolean keeps(int row, int column, int weight)
+		{
+			if (weight < min_weight)
+			{
+				return false;
+			}
+
+			// An edge is kept if it is among the K heaviest edges of either of its nodes
+			return row_thresholds == null || weight >= row_thresholds[row] || weight >= column_thresholds[column];
+		}
+	}
+
+	/***
+	 * A cursor over the edges of a cursor that are kept.
+	 */
+	private static class KeptEdges implements EdgeCursor
+	{
+		private EdgeCursor edges;
+		private PrunedGraph pruned;
+
+		KeptEdges(EdgeCursor edges, PrunedGraph pruned)
+		{
+			this.edges = edges;
+			this.pruned = pruned;
+		}
+
+		@Override
+		public boolean next()
+		{
+			while (edges.next())
+			{
+				if (pruned.keeps(edges.row(), edges.column(), edges.weight()))
+				{
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		@Override
+		public int row()
+		{
+			return edges.row();
+		}
+
+		@Override
+		public int column()
+		{
+			return edges.column();
+		}
+
+		@Override
+		public int weight()
+		{
+			return edges.weight();
+		}
+
+		@Override
+		public void close()
+		{
+			edges.close();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+
+public interface GraphSink
+{
+	/***
+	 *
+	 *	This is the interface of the writers of the output files, a sink writes a whole graph to a file in its format.
+	 *
+	 *	The graph is streamed through its EdgeCursor, so a graph that spilled its counts to disk is written the same way.
+	 *	A sink does not print anything, the command line tells where the file was written with the description of the sink.
+	 *	See CsvMatrixSink, CsvEdgeSink, GraphMLSink, GexfSink, PajekSink and CsvNodeSink for the formats of the command line.
+	 */
+
+	/***
+	 * Writes out a graph, any file that is already there is overwritten.
+	 *
+	 * @param graph - The graph to write, it is not changed.
+	 * @param output_file - The file the graph is written to.
+	 */
+	void write(CooccurrenceGraph graph, File output_file) throws IOException;
+
+	/***
+	 * @return what a written file is called in the message that it was written, like "CSV edge list".
+	 */
+	String description();
+}
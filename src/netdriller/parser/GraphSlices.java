@@ -0,0 +1,183 @@
+package netdriller.parser;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class GraphSlices
+{
+	/***
+	 *
+	 *	This class holds the graphs the papers are counted into, a graph for every aggregator (mode) of the run in every slice.
+	 *
+	 *	Without a Slicer there is a single slice that holds the graphs it was made with. With a Slicer every paper
+	 *	is counted into the graphs of its slice, which are made the first time the slice is seen. The graphs of all
+	 *	the slices share the symbol tables, so a name has the same ID in every slice.
+	 *	Slices are kept sorted by name, so they are written out in the same order every run.
+	 *	The graphs of a mode that spill share the memory budget of the mode over all the slices. When the counts in
+	 *	memory of all the slices of the mode go over the budget, the largest slice is spilled to disk.
+	 *	Every set of slices is counted on one thread, the sets of the workers of ParallelAggregator split the budget.
+	 */
+
+	public static String ALL = ""; // The name of the only slice when the papers are not sliced
+
+	public Aggregator[] aggregators;
+	public TreeMap<String, CooccurrenceGraph[]> slices = new TreeMap<String, CooccurrenceGraph[]>();
+
+	private CooccurrenceGraph[] templates;
+	private Slicer slicer;
+	private int parts = 1; // The number of sets of slices that share the memory budget
+	private long[] in_memory; // The pairs counted in memory over all the slices of every mode
+
+	/***
+	 * @param aggregators - The aggregators that decide which nodes and edges a paper adds, see Aggregator.
+	 * @param graphs - The graph of every aggregator, they may already hold counts.
+	 */
+	public GraphSlices(Aggregator[] aggregators, CooccurrenceGraph[] graphs)
+	{
+		this.aggregators = aggregators;
+		this.templates = graphs;
+		this.slices.put(ALL, graphs);
+	}
+
+	/***
+	 * @param aggregators - The aggregators that decide which nodes and edges a paper adds, see Aggregator.
+	 * @param templates - An empty graph of every aggregator, the graphs of a slice are made like them.
+	 * @param slicer - Decides the slice of every paper.
+	 */
+	public GraphSlices(Aggregator[] aggregators, CooccurrenceGraph[] templates, Slicer slicer)
+	{
+		this.aggregators = aggregators;
+		this.templates = templates;
+		this.slicer = slicer;
+		this.in_memory = new long[templates.length];
+	}
+
+	/***
+	 * Counts a paper into the graphs of its slice.
+	 */
+	public void count(Paper paper)
+	{
+		if (slicer == null)
+		{
+			for (int i = 0; i < aggregators.length; i++)
+			{
+				aggregators[i].count(paper, templates[i]);
+			}
+
+			return;
+		}
+
+		CooccurrenceGraph[] graphs = graphs(slicer.slice(paper));
+		for (int i = 0; i < aggregators.length; i++)
+		{
+			long before = graphs[i].counts.size();
+			aggregators[i].count(paper, graphs[i]);
+			if (graphs[i].spill != null)
+			{
+				in_memory[i] += graphs[i].counts.size() - before;
+				if (in_memory[i] > templates[i].max_pairs() / parts)
+				{
+					spill_largest(i);
+				}
+			}
+		}
+	}
+
+	/***
+	 * Spills the largest slices of a mode until the counts in memory of all its slices are within the budget.
+	 */
+	private void spill_largest(int index)
+	{
+		while (in_memory[index] > templates[index].max_pairs() / parts)
+		{
+			CooccurrenceGraph largest = null;
+			for (CooccurrenceGraph[] graphs : slices.values())
+			{
+				if (largest == null || graphs[index].counts.size() > largest.counts.size())
+				{
+					largest = graphs[index];
+				}
+			}
+
+			in_memory[index] -= largest.counts.size();
+			largest.spill_counts();
+		}
+	}
+
+	/***
+	 * @return the graphs of a slice, they are made if the slice is new.
+	 */
+	public CooccurrenceGraph[] graphs(String slice)
+	{
+		CooccurrenceGraph[] graphs = slices.get(slice);
+		if (graphs == null)
+		{
+			graphs = new CooccurrenceGraph[templates.length];
+			for (int i = 0; i < templates.length; i++)
+			{
+				graphs[i] = templates[i].slice();
+			}
+
+			slices.put(slice, graphs);
+		}
+
+		return graphs;
+	}
+
+	/***
+	 * @param parts - The number of partial sets that are counted at the same time.
+	 * @return an empty set of graphs to count a part of the papers into, see ParallelAggregator.
+	 */
+	public GraphSlices partial(int parts)
+	{
+		if (slicer == null)
+		{
+			CooccurrenceGraph[] graphs = new CooccurrenceGraph[templates.length];
+			for (int i = 0; i < templates.length; i++)
+			{
+				graphs[i] = templates[i].partial(parts);
+			}
+
+			return new GraphSlices(aggregators, graphs);
+		}
+
+		// A worker has its own Slicer, its caches are not shared between threads
+		GraphSlices partial = new GraphSlices(aggregators, templates, new Slicer(slicer.years, slicer.venue));
+		partial.parts = parts;
+		return partial;
+	}
+
+	/***
+	 * Adds all the slices of another set over the same aggregators to this set.
+	 *
+	 * @param other - The set to add, it is not changed.
+	 */
+	public void merge(GraphSlices other)
+	{
+		for (Map.Entry<String, CooccurrenceGraph[]> slice : other.slices.entrySet())
+		{
+			CooccurrenceGraph[] graphs = graphs(slice.getKey());
+			for (int i = 0; i < graphs.length; i++)
+			{
+				graphs[i].merge(slice.getValue()[i]);
+			}
+		}
+	}
+
+	/***
+	 * @return the number of pairs counted in memory over all the slices.
+	 */
+	public long size()
+	{
+		long size = 0;
+		for (CooccurrenceGraph[] graphs : slices.values())
+		{
+			for (CooccurrenceGraph graph : graphs)
+			{
+				size += graph.counts.size();
+			}
+		}
+
+		return size;
+	}
+}
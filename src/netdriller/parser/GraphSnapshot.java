@@ -0,0 +1,342 @@
+package netdriller.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class GraphSnapshot
+{
+	/***
+	 *
+	 *	This class saves and loads the aggregated counts of a graph in a compact binary file, so a later run can
+	 *	add new papers to them or write them out in another format without reading all the old papers again.
+	 *
+	 *	A snapshot holds the symbol tables of the graph (so new papers get the same IDs for known names),
+	 *	the row and column nodes and every stored pair with its weight. After a fixed header every number is an
+	 *	unsigned varint (7 bits per byte, low bits first):
+	 *
+	 *	header:  int magic "NDGS", int version, byte one_mode, row kind, column kind
+	 *	table:   count, then for every ID in order the length and the UTF-8 bytes of the name
+	 *	nodes:   count, then for every node in sorted order its ID as the difference to the previous ID and the
+	 *	         number of papers it was counted in
+	 *	edges:   count (of up to 64 bits, a spilled graph can have more pairs than an int holds), then for every
+	 *	         pair in sorted order the row as the difference to the previous row, the column (as the difference
+	 *	         to the previous column if the row did not change) and the weight
+	 *
+	 *	The rows table and nodes come first, the columns table and nodes follow only for a two-mode graph.
+	 *	Snapshots are read through a MappedFile, so loading one does not copy the file through the heap.
+	 *	Snapshots of version 2 do not hold the papers of the nodes, they still load with 0 papers for every node.
+	 */
+
+	public static int MAGIC = 0x4E444753; // "NDGS"
+	public static int VERSION = 3;
+	public static int OLDEST_VERSION = 2; // The oldest version that can still be loaded
+
+	/***
+	 * @param graph - The graph to save.
+	 * @param file - The file the snapshot is written to, any existing file is overwritten.
+	 */
+	public static void save(CooccurrenceGraph graph, File file) throws IOException
+	{
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file, false), 1 << 16);
+		try
+		{
+			write_int(out, MAGIC);
+			write_int(out, VERSION);
+			out.write(graph.is_one_mode() ? 1 : 0);
+			write_string(out, graph.rows.kind);
+			write_string(out, graph.columns.kind);
+
+			write_table(out, graph.rows);
+			write_nodes(out, graph, true);
+			if (!graph.is_one_mode())
+			{
+				write_table(out, graph.columns);
+				write_nodes(out, graph, false);
+			}
+
+			write_varlong(out, graph.edge_count());
+
+			int last_row = 0;
+			int last_column = 0;
+			EdgeCursor edges = graph.edges();
+			while (edges.next())
+			{
+				int row = edges.row();
+				int column = edges.column();
+
+				write_varint(out, row - last_row);
+				write_varint(out, row == last_row ? column - last_column : column);
+				write_varint(out, edges.weight());
+
+				last_row = row;
+				last_column = column;
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/***
+	 * Loads a snapshot into an empty graph.
+	 * The names of the snapshot are interned into the symbol tables of the graph, so the tables have to be empty
+	 * or hold the same names in the same order as the tables of the saved graph.
+	 *
+	 * @param file - The snapshot file written by save.
+	 * @param graph - An empty graph with the same kind of rows and columns as the saved graph.
+	 */
+	public static void load(File file, CooccurrenceGraph graph) throws IOException
+	{
+		MappedInput in = new MappedInput(file);
+		try
+		{
+			int version = in.read_int() == MAGIC ? in.read_int() : -1;
+			if (version < OLDEST_VERSION || version > VERSION)
+			{
+				throw new IOException("The file " + file.getPath() + " is not a snapshot of this version of the Parser.");
+			}
+
+			boolean one_mode = in.read_byte() == 1;
+			String row_kind = in.read_string();
+			String column_kind = in.read_string();
+			if (!row_kind.equals(graph.rows.kind) || !column_kind.equals(graph.columns.kind) || one_mode != graph.is_one_mode())
+			{
+				throw new IOException("The snapshot " + file.getPath() + " holds a graph of " + row_kind + "s and " + column_kind + "s, it was not saved in this mode.");
+			}
+
+			read_table(in, graph.rows);
+			boolean papers = version >= 3;
+			read_nodes(in, graph, true, papers);
+			if (!one_mode)
+			{
+				read_table(in, graph.columns);
+				read_nodes(in, graph, false, papers);
+			}
+
+			long pairs = in.read_varlong();
+			if (graph.counts.size() == 0 && graph.spill == null && pairs <= Integer.MAX_VALUE / 4)
+			{
+				// Size the counter once instead of growing it while the pairs are added
+				graph.counts = new PairCounter((int) pairs);
+			}
+
+			int row = 0;
+			int column = 0;
+			for (long i = 0; i < pairs; i++)
+			{
+				int row_delta = in.read_varint();
+				int column_value = in.read_varint();
+
+				row += row_delta;
+				column = row_delta == 0 ? column + column_value : column_value;
+				graph.add_weight(PairCounter.pack(row, column), in.read_varint());
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/***
+	 * @param file_path - The path of a file.
+	 * @return true if the file starts like a snapshot, so it can be used in place of an input file.
+	 */
+	public static boolean is_snapshot(String file_path)
+	{
+		try
+		{
+			DataInputStream in = new DataInputStream(new FileInputStream(file_path));
+			try
+			{
+				return in.readInt() == MAGIC;
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+	}
+
+	private static void write_table(OutputStream out, SymbolTable table) throws IOException
+	{
+		write_varint(out, table.size());
+		for (int id = 0; id < table.size(); id++)
+		{
+			write_string(out, table.name(id));
+		}
+	}
+
+	private static void read_table(MappedInput in, SymbolTable table) throws IOException
+	{
+		int size = in.read_varint();
+		for (int id = 0; id < size; id++)
+		{
+			if (table.intern(in.read_string()) != id)
+			{
+				throw new IOException("The " + table.kind + " names of the snapshot do not match the names that were already read.");
+			}
+		}
+	}
+
+	private static void write_nodes(OutputStream out, CooccurrenceGraph graph, boolean rows) throws IOException
+	{
+		int[] ids = rows ? graph.row_ids() : graph.column_ids();
+		write_varint(out, ids.length);
+		int last = 0;
+		for (int id : ids)
+		{
+			write_varint(out, id - last);
+			write_varint(out, rows ? graph.row_papers(id) : graph.column_papers(id));
+			last = id;
+		}
+	}
+
+	private static void read_nodes(MappedInput in, CooccurrenceGraph graph, boolean rows, boolean papers) throws IOException
+	{
+		int count = in.read_varint();
+		int id = 0;
+		for (int i = 0; i < count; i++)
+		{
+			id += in.read_varint();
+			int node_papers = papers ? in.read_varint() : 0;
+			if (rows)
+			{
+				graph.add_row_papers(id, node_papers);
+			}
+			else
+			{
+				graph.add_column_papers(id, node_papers);
+			}
+		}
+	}
+
+	private static void write_string(OutputStream out, String value) throws IOException
+	{
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		write_varint(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static void write_int(OutputStream out, int value) throws IOException
+	{
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	private static void write_varint(OutputStream out, int value) throws IOException
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		out.write(value);
+	}
+
+	/***
+	 * Writes a long the same way as write_varint, so a value that fits in an int has the same bytes.
+	 */
+	private static void write_varlong(OutputStream out, long value) throws IOException
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		out.write((int) value);
+	}
+
+	/***
+	 * Reads the numbers and names of a snapshot from a memory mapped file.
+	 */
+	private static class MappedInput
+	{
+		private MappedFile file;
+
+		MappedInput(File file) throws IOException
+		{
+			this.file = new MappedFile(file);
+		}
+
+		int read_byte() throws IOException
+		{
+			int b = file.read();
+			if (b == -1)
+			{
+				throw new EOFException("The snapshot file ended unexpectedly.");
+			}
+
+			return b;
+		}
+
+		int read_int() throws IOException
+		{
+			return (read_byte() << 24) | (read_byte() << 16) | (read_byte() << 8) | read_byte();
+		}
+
+		int read_varint() throws IOException
+		{
+			int value = 0;
+			int shift = 0;
+			int b;
+			do
+			{
+				b = read_byte();
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while ((b & 0x80) != 0);
+
+			return value;
+		}
+
+		long read_varlong() throws IOException
+		{
+			long value = 0;
+			int shift = 0;
+			int b;
+			do
+			{
+				b = read_byte();
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while ((b & 0x80) != 0);
+
+			return value;
+		}
+
+		String read_string() throws IOException
+		{
+			byte[] bytes = new byte[read_varint()];
+			for (int i = 0; i < bytes.length; i++)
+			{
+				bytes[i] = (byte) read_byte();
+			}
+
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		void close() throws IOException
+		{
+			file.close();
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package netdriller.parser;
+
+public class KeywordAggregator extends OneModeAggregator
+{
+	/***
+	 *
+	 *	This is the aggregator of the titles and keywords mode.
+	 *
+	 *	Nodes are keywords of papers and edges between nodes are co-occurrences of these keywords in papers.
+	 *	The weight of the edge indicates the number of times these two keywords co-occurred.
+	 *	If the terms of the titles were extracted (see TitleTokenizer), they are used in place of the keywords.
+	 */
+
+	/***
+	 * @param key_word_table - The symbol table the keywords, or the terms of the titles, are interned into.
+	 */
+	public KeywordAggregator(SymbolTable key_word_table)
+	{
+		super(key_word_table);
+	}
+
+	@Override
+	protected int[] members(Paper paper)
+	{
+		return paper.title_term_ids != null ? paper.title_term_ids : paper.key_word_ids;
+	}
+}
@@ -0,0 +1,159 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+public class MappedFile
+{
+	/***
+	 *
+	 *	This is a read only byte cursor over a memory mapped file.
+	 *
+	 *	The file is mapped through a FileChannel one window at a time, so files larger than the heap
+	 *	(and larger than the 2GB a single MappedByteBuffer can hold) are read without copying them into memory.
+	 */
+
+	public static long WINDOW_SIZE = 1L << 30;
+
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private long window_start; // The position in the file the current window starts at
+	private long size;
+	private boolean range; // A range shares the channel of the file it was made from
+
+	public MappedFile(File file) throws IOException
+	{
+		RandomAccessFile random_access = new RandomAccessFile(file, "r");
+		this.channel = random_access.getChannel();
+		this.size = channel.size();
+		map(0);
+	}
+
+	private MappedFile(FileChannel channel, long from, long to) throws IOException
+	{
+		this.channel = channel;
+		this.size = to;
+		this.range = true;
+		map(from);
+	}
+
+	/***
+	 * Several ranges of a file can be read at the same time on different threads, see ParallelPaperReader.
+	 *
+	 * @param from - The position of the first byte of the range.
+	 * @param to - The position after the last byte of the range.
+	 * @return a cursor over the range that reads the end of the file at the end of the range.
+	 */
+	public MappedFile range(long from, long to) throws IOException
+	{
+		return new MappedFile(channel, from, to);
+	}
+
+	/***
+	 * @return the size of the file in bytes.
+	 */
+	public long size()
+	{
+		return size;
+	}
+
+	/***
+	 * @return the position in the file of the next byte read will return.
+	 */
+	public long position()
+	{
+		return window_start + buffer.position();
+	}
+
+	/***
+	 * Moves the cursor to a position in the file.
+	 */
+	public void seek(long position) throws IOException
+	{
+		if (position >= window_start && position <= window_start + buffer.limit())
+		{
+			buffer.position((int) (position - window_start));
+		}
+		else
+		{
+			map(position);
+		}
+	}
+
+	/***
+	 * @return the next byte of the file as an int between 0 and 255, or -1 at the end of the file.
+	 */
+	public int read() throws IOException
+	{
+		if (!buffer.hasRemaining() && !next_window())
+		{
+			return -1;
+		}
+
+		return buffer.get() & 0xFF;
+	}
+
+	/***
+	 * @return the next byte of the file without moving the cursor, or -1 at the end of the file.
+	 */
+	public int peek() throws IOException
+	{
+		if (!buffer.hasRemaining() && !next_window())
+		{
+			return -1;
+		}
+
+		return buffer.get(buffer.position()) & 0xFF;
+	}
+
+	/***
+	 * Decodes a range of the file without moving the cursor, this is meant for error messages.
+	 *
+	 * @param from - The position of the first byte.
+	 * @param to - The position after the last byte.
+	 * @return the UTF-8 text of the range.
+	 */
+	public String text(long from, long to) throws IOException
+	{
+		ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(to - from, Integer.MAX_VALUE - 8));
+		while (bytes.hasRemaining() && channel.read(bytes, from + bytes.position()) > 0)
+		{
+		}
+
+		return new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+	}
+
+	/***
+	 * Closes the file, closing a range does nothing as the file is still read through its channel.
+	 */
+	public void close() throws IOException
+	{
+		if (!range)
+		{
+			channel.close();
+		}
+	}
+
+	private boolean next_window() throws IOException
+	{
+		long next = window_start + buffer.limit();
+		if (next >= size)
+		{
+			return false;
+		}
+
+		map(next);
+		return true;
+	}
+
+	private void map(long position) throws IOException
+	{
+		window_start = position;
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+	}
+}
@@ -0,0 +1,888 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.json.simple.parser.ParseException;
+
+public class MappedPaperReader implements PaperSource, Iterator<Paper>
+{
+	/***
+	 *
+	 *	This is a streaming reader for the input file that tokenizes the papers straight from a memory mapped file.
+	 *
+	 *	Unlike PaperReader it does not decode the file into characters or build a JSONObject per paper.
+	 *	Author names and keywords are unescaped into a reusable byte buffer and looked up in a ByteSymbolCache,
+	 *	so a name is only decoded into a String the first time it is seen. Only the title, venue and year of a
+	 *	paper are decoded every time. Files much larger than the heap can be read this way.
+	 *	In lenient mode papers that do not follow the schema are skipped. After JSON that is not proper, reading
+	 *	picks up again at the next paper, the first "}" followed by a comma and "{" (or by the end of the array).
+	 */
+
+	private static byte[] AUTHORS_KEY = "authors".getBytes(StandardCharsets.UTF_8);
+	private static byte[] KEYWORDS_KEY = "keywords".getBytes(StandardCharsets.UTF_8);
+	private static byte[] TITLE_KEY = "title".getBytes(StandardCharsets.UTF_8);
+	private static byte[] VENUE_KEY = "venue".getBytes(StandardCharsets.UTF_8);
+	private static byte[] YEAR_KEY = "year".getBytes(StandardCharsets.UTF_8);
+	private static byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+	private static byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+	private static byte[] FALSE = "false".getBytes(StandardCharsets.UTF_8);
+
+	private String file_path;
+	private MappedFile in;
+	private ByteSymbolCache authors;
+	private ByteSymbolCache key_words;
+
+	// The unescaped UTF-8 bytes of the last string that was read
+	private byte[] scratch = new byte[256];
+	private int scratch_length;
+
+	// Reused while the IDs of an array of names are read
+	private int[] ids = new int[64];
+
+	// Set while a paper is read if one of its fields does not follow the schema, with the reason
+	private boolean bad_record;
+	private String bad_reason;
+
+	private boolean started;
+	private boolean finished;
+	private Paper pending;
+	private int count;
+	private long records; // The papers read so far, including the skipped ones
+
+	public RunReport report = null; // The parse phase is timed if set
+	public TitleTokenizer title_terms = null; // The terms of the titles are extracted if set
+	public RecordErrors errors = null; // Papers that do not follow the schema are skipped and added to it if set
+
+	/***
+	 * @param file_path - The path of the input file.
+	 * @param author_table - The symbol table author names are interned into.
+	 * @param key_word_table - The symbol table keywords are interned into.
+	 */
+	public MappedPaperReader(String file_path, SymbolTable author_table, SymbolTable key_word_table) throws IOException
+	{
+		this.file_path = file_path;
+		this.in = new MappedFile(new File(file_path));
+		this.authors = new ByteSymbolCache(author_table);
+		this.key_words = new ByteSymbolCache(key_word_table);
+	}
+
+	/***
+	 * @param in - The range of the input file to read, see ParallelPaperReader.
+	 * @param author_table - The symbol table author names are interned into.
+	 * @param key_word_table - The symbol table keywords are interned into.
+	 */
+	MappedPaperReader(MappedFile in, SymbolTable author_table, SymbolTable key_word_table)
+	{
+		this.in = in;
+		this.authors = new ByteSymbolCache(author_table);
+		this.key_words = new ByteSymbolCache(key_word_table);
+	}
+
+	/***
+	 * @param normalizer - The normalizer of the author names, null to only upper case them.
+	 */
+	public void normalize_authors(NameNormalizer normalizer)
+	{
+		authors.normalizer = normalizer;
+	}
+
+	/***
+	 * @return true if the input has nothing but white space in it.
+	 */
+	public boolean is_empty() throws IOException
+	{
+		skip_whitespace();
+		return in.peek() == -1;
+	}
+
+	/***
+	 * @return the number of papers that were read so far.
+	 */
+	public int count()
+	{
+		return count;
+	}
+
+	@Override
+	public Iterator<Paper> iterator()
+	{
+		return this;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (pending == null && !finished)
+		{
+			try
+			{
+				long start = System.nanoTime();
+				pending = read_next();
+				if (report != null)
+				{
+					report.add_time(RunReport.PARSE, start);
+				}
+				if (pending == null)
+				{
+					finished = true;
+					in.close();
+					System.out.println("The file " + file_path + " was successfuly parsed!");
+				}
+			}
+			catch (ParseException e)
+			{
+				throw new ParserException("The input file contained inproper JSON. Please follow provided instructions.", true);
+			}
+			catch (IOException e)
+			{
+				throw new ParserException("There was an error raeding and/or closing the file. Make sure the file " + file_path + " exists and that the proper permissions are given to it.", true);
+			}
+		}
+
+		return pending != null;
+	}
+
+	@Override
+	public Paper next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		Paper paper = pending;
+		pending = null;
+		return paper;
+	}
+
+	/***
+	 * @return the next paper of the outermost array or null at the end of the array.
+	 */
+	private Paper read_next() throws IOException, ParseException
+	{
+		while (true)
+		{
+			long start = in.position();
+			boolean counted = false;
+			try
+			{
+				skip_whitespace();
+				if (!started)
+				{
+					// This is the outermost array that contains a list of papers
+					expect('[');
+					started = true;
+					skip_whitespace();
+					if (in.peek() == ']')
+					{
+						in.read();
+						expect_end();
+						return null;
+					}
+				}
+				else
+				{
+					int c = in.read();
+					if (c == ']')
+					{
+						expect_end();
+						return null;
+					}
+					else if (c != ',')
+					{
+						throw unexpected(c);
+					}
+
+					skip_whitespace();
+				}
+
+				start = in.position();
+				records++;
+				counted = true;
+				Paper paper = read_paper();
+				if (paper != null)
+				{
+					count++;
+					return paper;
+				}
+
+				if (errors == null)
+				{
+					throw new ParserException("Was unable to parse parts of the input JSON. Please follow instructions." + System.lineSeparator()
+							+ "Error at: " + error_text(in, start, in.position()), true);
+				}
+
+				skip(start, bad_reason);
+			}
+			catch (ParseException e)
+			{
+				if (errors == null || !started)
+				{
+					throw e;
+				}
+
+				// Pick up again at the next paper, the rest of the input is skipped if there is none
+				if (!counted)
+				{
+					records++;
+				}
+
+				boolean found = resync();
+				skip(start, "The paper is not proper JSON. " + e);
+				if (!found)
+				{
+					return null;
+				}
+			}
+		}
+	}
+
+	/***
+	 * Adds a skipped paper to the errors, the paper is the text from its start to the cursor.
+	 */
+	private void skip(long start, String reason) throws IOException
+	{
+		long end = Math.min(in.position(), start + RecordErrors.MAX_TEXT_LENGTH + 1);
+		errors.add(records, start, reason, in.text(start, end).trim());
+	}
+
+	/***
+	 * @return the text of a paper from its start to its end for an error message, cut to RecordErrors.MAX_TEXT_LENGTH bytes.
+	 */
+	static String error_text(MappedFile in, long start, long end) throws IOException
+	{
+		long cut = Math.min(end, start + RecordErrors.MAX_TEXT_LENGTH);
+		String text = in.text(start, cut).trim();
+		return cut < end ? text + "..." : text;
+	}
+
+	/***
+	 * Moves the cursor to the comma in front of the next paper, or to the closing bracket at the end of the array.
+	 *
+	 * @return false if there is neither, the cursor is then at the end of the input.
+	 */
+	private boolean resync() throws IOException
+	{
+		while (true)
+		{
+			int c = in.read();
+			if (c == -1)
+			{
+				return false;
+			}
+			else if (c != '}')
+			{
+				continue;
+			}
+
+			skip_whitespace();
+			long separator = in.position();
+			c = in.peek();
+			if (c == ',' || c == ']')
+			{
+				in.read();
+				skip_whitespace();
+				int next = in.peek();
+				if ((c == ',' && next == '{') || (c == ']' && next == -1))
+				{
+					in.seek(separator);
+					return true;
+				}
+			}
+			else if (c == -1)
+			{
+				// The end of a chunk of the array, see ParallelPaperReader
+				return true;
+			}
+		}
+	}
+
+	/***
+	 * Reads all the papers of a chunk of the outermost array, the papers and the commas between them.
+	 * Unless the chunk is lenient, reading stops at the first paper that does not follow the schema.
+	 *
+	 * @param chunk - The chunk that was read, its papers and skipped papers are added to it.
+	 */
+	void read_chunk(ParallelPaperReader.Chunk chunk) throws IOException, ParseException
+	{
+		skip_whitespace();
+		if (chunk.first && in.peek() == -1)
+		{
+			// The outermost array is empty
+			return;
+		}
+
+		boolean first_paper = true;
+		while (true)
+		{
+			long start = in.position();
+			boolean counted = false;
+			try
+			{
+				skip_whitespace();
+				if (!first_paper)
+				{
+					int c = in.read();
+					if (c == -1)
+					{
+						return;
+					}
+					else if (c != ',')
+					{
+						throw unexpected(c);
+					}
+
+					skip_whitespace();
+				}
+
+				first_paper = false;
+				start = in.position();
+				chunk.records++;
+				counted = true;
+				Paper paper = read_paper();
+				if (paper != null)
+				{
+					chunk.papers.add(paper);
+					count++;
+				}
+				else
+				{
+					chunk.skip(start, in.position(), bad_reason);
+					if (!chunk.lenient)
+					{
+						return;
+					}
+				}
+			}
+			catch (ParseException e)
+			{
+				if (!chunk.lenient)
+				{
+					throw e;
+				}
+
+				// Pick up again at the next paper of the chunk, the rest of the chunk is skipped if there is none
+				if (!counted)
+				{
+					chunk.records++;
+				}
+
+				boolean found = resync();
+				chunk.skip(start, in.position(), "The paper is not proper JSON. " + e);
+				if (!found)
+				{
+					return;
+				}
+			}
+		}
+	}
+
+	/***
+	 * @return the paper object at the cursor or null if it does not follow the schema.
+	 */
+	private Paper read_paper() throws IOException, ParseException
+	{
+		bad_record = false;
+		bad_reason = null;
+		if (in.peek() != '{')
+		{
+			skip_value();
+			bad("The paper is not an object.");
+			return null;
+		}
+
+		int[] author_ids = null;
+		int[] key_word_ids = null;
+		String title = null;
+		String venue = null;
+		String year = null;
+
+		in.read();
+		skip_whitespace();
+		if (in.peek() == '}')
+		{
+			in.read();
+		}
+		else
+		{
+			while (true)
+			{
+				skip_whitespace();
+				read_string();
+				skip_whitespace();
+				expect(':');
+				skip_whitespace();
+
+				if (key_is(AUTHORS_KEY))
+				{
+					author_ids = read_ids(authors, "authors");
+				}
+				else if (key_is(KEYWORDS_KEY))
+				{
+					key_word_ids = read_ids(key_words, "keywords");
+				}
+				else if (key_is(TITLE_KEY))
+				{
+					title = read_text("title");
+				}
+				else if (key_is(VENUE_KEY))
+				{
+					venue = read_text("venue");
+				}
+				else if (key_is(YEAR_KEY))
+				{
+					year = read_text("year");
+				}
+				else
+				{
+					skip_value();
+				}
+
+				skip_whitespace();
+				int c = in.read();
+				if (c == '}')
+				{
+					break;
+				}
+				else if (c != ',')
+				{
+					throw unexpected(c);
+				}
+			}
+		}
+
+		// Both arrays are required, just like in the Paper constructor
+		if (author_ids == null && !bad_record)
+		{
+			bad("The paper has no authors array.");
+		}
+
+		if (key_word_ids == null && !bad_record)
+		{
+			bad("The paper has no keywords array.");
+		}
+
+		if (bad_record)
+		{
+			return null;
+		}
+
+		Paper paper = new Paper(author_ids, key_word_ids, title, venue, year);
+		if (title_terms != null)
+		{
+			paper.title_term_ids = title_terms.terms(title);
+		}
+
+		return paper;
+	}
+
+	/***
+	 * Marks the paper being read as not following the schema, the first reason is kept.
+	 */
+	private void bad(String reason)
+	{
+		if (!bad_record)
+		{
+			bad_record = true;
+			bad_reason = reason;
+		}
+	}
+
+	/***
+	 * @return the IDs of an array of names, or null if the value is not an array of strings.
+	 */
+	private int[] read_ids(ByteSymbolCache cache, String key) throws IOException, ParseException
+	{
+		if (in.peek() != '[')
+		{
+			skip_value();
+			bad("The " + key + " of the paper are not an array of strings.");
+			return null;
+		}
+
+		in.read();
+		int n = 0;
+		skip_whitespace();
+		if (in.peek() == ']')
+		{
+			in.read();
+			return new int[0];
+		}
+
+		while (true)
+		{
+			skip_whitespace();
+			if (in.peek() == '"')
+			{
+				read_string();
+				if (n == ids.length)
+				{
+					ids = Arrays.copyOf(ids, n * 2);
+				}
+
+				ids[n++] = cache.intern(scratch, scratch_length);
+			}
+			else
+			{
+				skip_value();
+				bad("The " + key + " of the paper are not an array of strings.");
+			}
+
+			skip_whitespace();
+			int c = in.read();
+			if (c == ']')
+			{
+				break;
+			}
+			else if (c != ',')
+			{
+				throw unexpected(c);
+			}
+		}
+
+		return Arrays.copyOf(ids, n);
+	}
+
+	/***
+	 * @return the decoded string value at the cursor, null for a null value.
+	 */
+	private String read_text(String key) throws IOException, ParseException
+	{
+		if (in.peek() == '"')
+		{
+			read_string();
+			return new String(scratch, 0, scratch_length, StandardCharsets.UTF_8);
+		}
+
+		skip_value();
+		if (!key_is(NULL))
+		{
+			bad("The " + key + " of the paper is not a string.");
+		}
+
+		return null;
+	}
+
+	/***
+	 * Reads a string at the cursor and unescapes its UTF-8 bytes into the scratch buffer.
+	 */
+	private void read_string() throws IOException, ParseException
+	{
+		expect('"');
+		scratch_length = 0;
+
+		while (true)
+		{
+			int c = in.read();
+			if (c == '"')
+			{
+				return;
+			}
+			else if (c == '\\')
+			{
+				read_escape(in.read());
+			}
+			else if (c == -1)
+			{
+				throw unexpected(c);
+			}
+			else
+			{
+				append(c);
+			}
+		}
+	}
+
+	private void read_escape(int c) throws IOException, ParseException
+	{
+		switch (c)
+		{
+			case '"':
+			case '\\':
+			case '/':
+				append(c);
+				break;
+			case 'b':
+				append('\b');
+				break;
+			case 'f':
+				append('\f');
+				break;
+			case 'n':
+				append('\n');
+				break;
+			case 'r':
+				append('\r');
+				break;
+			case 't':
+				append('\t');
+				break;
+			case 'u':
+				int code_point = read_hex();
+				if (Character.isHighSurrogate((char) code_point) && in.peek() == '\\')
+				{
+					in.read();
+					int next = in.read();
+					if (next != 'u')
+					{
+						append_code_point(code_point);
+						read_escape(next);
+						return;
+					}
+
+					int low = read_hex();
+					if (!Character.isLowSurrogate((char) low))
+					{
+						append_code_point(code_point);
+						append_code_point(low);
+						return;
+					}
+
+					code_point = Character.toCodePoint((char) code_point, (char) low);
+				}
+
+				append_code_point(code_point);
+				break;
+			default:
+				throw unexpected(c);
+		}
+	}
+
+	private int read_hex() throws IOException, ParseException
+	{
+		int value = 0;
+		for (int i = 0; i < 4; i++)
+		{
+			int c = in.read();
+			int digit = Character.digit(c, 16);
+			if (c == -1 || digit < 0)
+			{
+				throw unexpected(c);
+			}
+
+			value = value * 16 + digit;
+		}
+
+		return value;
+	}
+
+	private void append_code_point(int code_point)
+	{
+		if (code_point < 0x80)
+		{
+			append(code_point);
+		}
+		else if (code_point < 0x800)
+		{
+			append(0xC0 | (code_point >> 6));
+			append(0x80 | (code_point & 0x3F));
+		}
+		else if (code_point < 0x10000)
+		{
+			append(0xE0 | (code_point >> 12));
+			append(0x80 | ((code_point >> 6) & 0x3F));
+			append(0x80 | (code_point & 0x3F));
+		}
+		else
+		{
+			append(0xF0 | (code_point >> 18));
+			append(0x80 | ((code_point >> 12) & 0x3F));
+			append(0x80 | ((code_point >> 6) & 0x3F));
+			append(0x80 | (code_point & 0x3F));
+		}
+	}
+
+	private void append(int b)
+	{
+		if (scratch_length == scratch.length)
+		{
+			scratch = Arrays.copyOf(scratch, scratch_length * 2);
+		}
+
+		scratch[scratch_length++] = (byte) b;
+	}
+
+	/***
+	 * Skips any JSON value at the cursor. A literal (number, true, false or null) is left in the scratch buffer,
+	 * any other run of letters and digits is not proper JSON.
+	 */
+	private void skip_value() throws IOException, ParseException
+	{
+		int c = in.peek();
+		if (c == '"')
+		{
+			read_string();
+		}
+		else if (c == '{' || c == '[')
+		{
+			int close = c == '{' ? '}' : ']';
+			in.read();
+			skip_whitespace();
+			if (in.peek() == close)
+			{
+				in.read();
+				return;
+			}
+
+			while (true)
+			{
+				skip_whitespace();
+				if (close == '}')
+				{
+					read_string();
+					skip_whitespace();
+					expect(':');
+					skip_whitespace();
+				}
+
+				skip_value();
+				skip_whitespace();
+				int next = in.read();
+				if (next == close)
+				{
+					return;
+				}
+				else if (next != ',')
+				{
+					throw unexpected(next);
+				}
+			}
+		}
+		else
+		{
+			long start = in.position();
+			scratch_length = 0;
+			c = in.peek();
+			while ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.')
+			{
+				append(in.read());
+				c = in.peek();
+			}
+
+			if (scratch_length == 0)
+			{
+				throw unexpected(c);
+			}
+
+			if (!key_is(TRUE) && !key_is(FALSE) && !key_is(NULL) && !is_number())
+			{
+				throw new ParseException((int) Math.min(start, Integer.MAX_VALUE), ParseException.ERROR_UNEXPECTED_TOKEN, new String(scratch, 0, scratch_length, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	/***
+	 * @return true if the literal in the scratch buffer is a number the way json-simple reads one, digits with an
+	 * optional minus, fraction and exponent.
+	 */
+	private boolean is_number()
+	{
+		int i = scratch_length > 0 && scratch[0] == '-' ? 1 : 0;
+		int digits = skip_digits(i);
+		if (digits == i)
+		{
+			return false;
+		}
+
+		i = digits;
+		if (i < scratch_length && scratch[i] == '.')
+		{
+			digits = skip_digits(i + 1);
+			if (digits == i + 1)
+			{
+				return false;
+			}
+
+			i = digits;
+		}
+
+		if (i < scratch_length && (scratch[i] == 'e' || scratch[i] == 'E'))
+		{
+			i++;
+			if (i < scratch_length && (scratch[i] == '-' || scratch[i] == '+'))
+			{
+				i++;
+			}
+
+			digits = skip_digits(i);
+			if (digits == i)
+			{
+				return false;
+			}
+
+			i = digits;
+		}
+
+		return i == scratch_length;
+	}
+
+	/***
+	 * @return the index of the first byte from i on in the scratch buffer that is not a digit.
+	 */
+	private int skip_digits(int i)
+	{
+		while (i < scratch_length && scratch[i] >= '0' && scratch[i] <= '9')
+		{
+			i++;
+		}
+
+		return i;
+	}
+
+	private boolean key_is(byte[] key)
+	{
+		if (scratch_length != key.length)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < key.length; i++)
+		{
+			if (scratch[i] != key[i])
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void skip_whitespace() throws IOException
+	{
+		int c = in.peek();
+		while (c == ' ' || c == '\t' || c == '\n' || c == '\r')
+		{
+			in.read();
+			c = in.peek();
+		}
+	}
+
+	private void expect(int expected) throws IOException, ParseException
+	{
+		int c = in.read();
+		if (c != expected)
+		{
+			throw unexpected(c);
+		}
+	}
+
+	private void expect_end() throws IOException, ParseException
+	{
+		skip_whitespace();
+		int c = in.read();
+		if (c != -1)
+		{
+			throw unexpected(c);
+		}
+	}
+
+	private ParseException unexpected(int c) throws IOException
+	{
+		return new ParseException((int) Math.min(in.position(), Integer.MAX_VALUE), ParseException.ERROR_UNEXPECTED_CHAR, c == -1 ? "END OF FILE" : Character.valueOf((char) c));
+	}
+}
@@ -0,0 +1,18 @@
+package netdriller.parser;
+
+public interface NameNormalizer
+{
+	/***
+	 *
+	 *	This is the interface of the normalizers of author names.
+	 *
+	 *	A normalizer maps every spelling of a name to its canonical form before the name is interned, so that
+	 *	"Rokne, J.", "Rokne, Jon" and "J. Rokne" can become the same node. Without a normalizer names are only upper cased.
+	 */
+
+	/***
+	 * @param name - A name as it is written in the input file.
+	 * @return the canonical form of the name that is interned.
+	 */
+	String normalize(String name);
+}
@@ -0,0 +1,52 @@
+package netdriller.parser;
+
+public abstract class OneModeAggregator implements Aggregator
+{
+	/***
+	 *
+	 *	This is the base of the aggregators of one-mode graphs, where the members of a paper (authors or keywords)
+	 *	are the nodes and every two members of the same paper are an edge.
+	 */
+
+	public SymbolTable table;
+
+	/***
+	 * @param table - The symbol table the members of the papers are interned into.
+	 */
+	public OneModeAggregator(SymbolTable table)
+	{
+		this.table = table;
+	}
+
+	/***
+	 * @return the IDs of the members of a paper.
+	 */
+	protected abstract int[] members(Paper paper);
+
+	@Override
+	public CooccurrenceGraph new_graph()
+	{
+		return new CooccurrenceGraph(table, table);
+	}
+
+	/***
+	 * Counts the co-occurrences of the members of a single paper into a one-mode graph.
+	 * Every unordered pair of members is visited once and counted in both directions.
+	 */
+	@Override
+	public void count(Paper paper, CooccurrenceGraph graph)
+	{
+		int[] members = members(paper);
+		for(int i = 0; i < members.length; i++)
+		{
+			// Every member is a node, even if the paper has no other members, and the paper is counted once for it
+			graph.add_row_papers(members[i], Paper.is_repeated(members, i) ? 0 : 1);
+			
+			// Add the occurrence of this member with every member after it in the paper into the graph
+			for(int j = i + 1; j < members.length; j++)
+			{
+				graph.add_pair(members[i], members[j]);
+			}
+		}
+	}
+}
@@ -0,0 +1,325 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.util.ArrayList;
+
+public class Options
+{
+	/***
+	 *
+	 *	This is a container class for the command line parameters of the Parser.
+	 *
+	 *	Parameters starting with "--" are optional settings in the form --name or --name=value,
+	 *	every other parameter is positional (<MODE_PARAMETER> <INPUT_FILE_NAME> [<OUTPUT_FILE_NAME>], or only <INPUT_FILE_NAME> with --serve).
+	 *	Several modes can be run in one pass over the input, with a comma separated list of modes and of output files.
+	 *	The papers can also be sliced by year or venue in the same pass, every slice is written to its own files.
+	 */
+
+	public static String MATRIX_FORMAT = "matrix";
+	public static String EDGES_FORMAT = "edges";
+	public static String GRAPHML_FORMAT = "graphml";
+	public static String GEXF_FORMAT = "gexf";
+	public static String PAJEK_FORMAT = "pajek";
+
+	public ArrayList<String> positional = new ArrayList<String>();
+
+	public String format = MATRIX_FORMAT; // --format=matrix|edges|graphml|gexf|pajek
+	public String node_list = null; // --nodes=<FILE_NAME>, also write out a list of all the nodes
+	public int threads = 1; // --threads=<N>, the number of threads the papers are counted on
+	public int parse_threads = 1; // --parse-threads=<N>, the number of threads the papers are decoded on, see ParallelPaperReader
+	public int min_weight = 1; // --min-weight=<N>, the lowest weight of a written edge
+	public int top_k = 0; // --top-k=<K>, only write the K heaviest edges of every node, 0 writes all of them
+	public int memory = 0; // --memory=<MB>, spill the counts of a mode to disk past this many megabytes, 0 keeps them in memory. The budget of a mode is shared by its slices and its counting threads
+	public String spill_directory = null; // --spill-dir=<DIRECTORY>, where the spilled counts are written
+	public String save = null; // --save=<FILE_NAME>, save a snapshot of the counts after the run
+	public String load = null; // --load=<FILE_NAME>, start from the counts of an earlier snapshot
+	public String report = null; // --report=<FILE_NAME>, write out a RunReport of the run
+	public String metrics = null; // --metrics=<FILE_NAME>, write out a summary of the GraphMetrics of the counted graph
+	public boolean lenient = false; // --lenient, skip the papers that do not follow the schema instead of exiting
+	public String errors = null; // --errors=<FILE_NAME>, write out the RecordErrors of the skipped papers, implies --lenient
+	public boolean mmap = false; // --mmap, read the input file through a memory mapped MappedPaperReader
+	public boolean gzip = false; // --gzip, compress the CSV output files
+	public boolean title_terms = false; // --title-terms, build the titles and keywords mode from the terms of the titles
+	public String aliases = null; // --aliases=<FILE_NAME>, a dictionary of the canonical names of authors
+	public boolean initials = false; // --initials, reduce author names to their last name and initials
+	public int slice_years = 0; // --slice-years=<N>, build a graph for every window of N years, 0 does not slice by year
+	public boolean slice_venue = false; // --slice-venue, build a graph for every venue
+	public int first_year = 0; // --years=<FIRST>-<LAST>, only count the papers of these years, 0 counts all the years
+	public int last_year = 0;
+	public String venue = null; // --venue=<VENUE>, only count the papers of this venue, see PaperFilter
+	public boolean serve = false; // --serve, keep the papers in memory and answer queries, see ParserServer
+	public int port = 0; // --port=<PORT>, answer the queries of the server on a local socket instead of the standard input
+	public int cache = ParserServer.DEFAULT_CACHE_SIZE; // --cache=<N>, the number of graphs the server keeps
+
+	/***
+	 * @param args - The command line parameters as given to main.
+	 * @return the parsed options, the utility exits with the instructions if an option is not valid.
+	 */
+	public static Options parse(String[] args)
+	{
+		Options options = new Options();
+
+		for (String arg : args)
+		{
+			if (!arg.startsWith("--"))
+			{
+				options.positional.add(arg);
+				continue;
+			}
+
+			String name = arg;
+			String value = null;
+			int equals = arg.indexOf('=');
+			if (equals >= 0)
+			{
+				name = arg.substring(0, equals);
+				value = arg.substring(equals + 1);
+			}
+
+			if (name.equals("--format") && (MATRIX_FORMAT.equals(value) || EDGES_FORMAT.equals(value) || GRAPHML_FORMAT.equals(value) || GEXF_FORMAT.equals(value) || PAJEK_FORMAT.equals(value)))
+			{
+				options.format = value;
+			}
+			else if (name.equals("--nodes") && value != null && Parser.check_path(value))
+			{
+				options.node_list = value;
+			}
+			else if (name.equals("--mmap") && value == null)
+			{
+				options.mmap = true;
+			}
+			else if (name.equals("--gzip") && value == null)
+			{
+				options.gzip = true;
+			}
+			else if (name.equals("--title-terms") && value == null)
+			{
+				options.title_terms = true;
+			}
+			else if (name.equals("--aliases") && value != null && Parser.check_path(value))
+			{
+				options.aliases = value;
+			}
+			else if (name.equals("--initials") && value == null)
+			{
+				options.initials = true;
+			}
+			else if (name.equals("--report") && value != null && Parser.check_path(value))
+			{
+				options.report = value;
+			}
+			else if (name.equals("--metrics") && value != null && Parser.check_path(value))
+			{
+				options.metrics = value;
+			}
+			else if (name.equals("--lenient") && value == null)
+			{
+				options.lenient = true;
+			}
+			else if (name.equals("--errors") && value != null && Parser.check_path(value))
+			{
+				options.errors = value;
+				options.lenient = true;
+			}
+			else if (name.equals("--save") && value != null && Parser.check_path(value))
+			{
+				options.save = value;
+			}
+			else if (name.equals("--load") && value != null && Parser.check_path(value))
+			{
+				options.load = value;
+			}
+			else if (name.equals("--threads") && parse_positive(value) > 0)
+			{
+				options.threads = parse_positive(value);
+			}
+			else if (name.equals("--parse-threads") && parse_positive(value) > 0)
+			{
+				options.parse_threads = parse_positive(value);
+			}
+			else if (name.equals("--min-weight") && parse_positive(value) > 0)
+			{
+				options.min_weight = parse_positive(value);
+			}
+			else if (name.equals("--top-k") && parse_positive(value) > 0)
+			{
+				options.top_k = parse_positive(value);
+			}
+			else if (name.equals("--memory") && parse_positive(value) > 0)
+			{
+				options.memory = parse_positive(value);
+			}
+			else if (name.equals("--slice-years") && parse_positive(value) > 0)
+			{
+				options.slice_years = parse_positive(value);
+			}
+			else if (name.equals("--slice-venue") && value == null)
+			{
+				options.slice_venue = true;
+			}
+			else if (name.equals("--years") && value != null && value.matches("[0-9]+(-[0-9]+)?"))
+			{
+				// A single year or a window of years, the order of the two years does not matter
+				String[] years = value.split("-");
+				int first = Integer.parseInt(years[0]);
+				int last = Integer.parseInt(years[years.length - 1]);
+				options.first_year = Math.min(first, last);
+				options.last_year = Math.max(first, last);
+			}
+			else if (name.equals("--venue") && value != null && !value.trim().isEmpty())
+			{
+				options.venue = value;
+			}
+			else if (name.equals("--serve") && value == null)
+			{
+				options.serve = true;
+			}
+			else if (name.equals("--port") && parse_positive(value) > 0 && parse_positive(value) <= 65535)
+			{
+				options.port = parse_positive(value);
+				options.serve = true;
+			}
+			else if (name.equals("--cache") && parse_positive(value) > 0)
+			{
+				options.cache = parse_positive(value);
+			}
+			else if (name.equals("--spill-dir") && value != null && Parser.check_path(value) && new File(value).isDirectory())
+			{
+				options.spill_directory = value;
+			}
+			else
+			{
+				throw new ParserException("The option " + arg + " is not valid. Please review usage instructions.", true);
+			}
+		}
+
+		return options;
+	}
+
+	/***
+	 * @return true if the papers are sliced by year or venue, see Slicer.
+	 */
+	public boolean is_sliced()
+	{
+		return slice_years > 0 || slice_venue;
+	}
+
+	/***
+	 * @return true if only some of the papers are counted, see PaperFilter.
+	 */
+	public boolean is_filtered()
+	{
+		return first_year > 0 || venue != null;
+	}
+
+	/***
+	 * When several modes are run at once, every mode writes its own node list, metrics and snapshot and loads its own snapshot.
+	 * The mode is added to these file names, so --save=week.ndg saves week_1.ndg, week_2.ndg and so on.
+	 *
+	 * @param mode - One of the modes of the run.
+	 * @return a copy of the options with the file names of the mode.
+	 */
+	public Options for_mode(int mode)
+	{
+		Options options = copy();
+		options.node_list = mode_file_name(node_list, mode);
+		options.metrics = mode_file_name(metrics, mode);
+		options.save = mode_file_name(save, mode);
+		options.load = mode_file_name(load, mode);
+		return options;
+	}
+
+	/***
+	 * When the papers are sliced, every slice writes its own node list, metrics and snapshot.
+	 * The slice is added to these file names, so --save=week.ndg saves week_1990-1994.ndg and so on.
+	 *
+	 * @param slice - The name of a slice, see Slicer.
+	 * @return a copy of the options with the file names of the slice.
+	 */
+	public Options for_slice(String slice)
+	{
+		Options options = copy();
+		options.node_list = suffixed_file_name(node_list, slice);
+		options.metrics = suffixed_file_name(metrics, slice);
+		options.save = suffixed_file_name(save, slice);
+		return options;
+	}
+
+	private Options copy()
+	{
+		Options options = new Options();
+		options.positional = positional;
+		options.format = format;
+		options.node_list = node_list;
+		options.threads = threads;
+		options.parse_threads = parse_threads;
+		options.min_weight = min_weight;
+		options.top_k = top_k;
+		options.memory = memory;
+		options.spill_directory = spill_directory;
+		options.save = save;
+		options.load = load;
+		options.report = report;
+		options.metrics = metrics;
+		options.lenient = lenient;
+		options.errors = errors;
+		options.mmap = mmap;
+		options.gzip = gzip;
+		options.title_terms = title_terms;
+		options.aliases = aliases;
+		options.initials = initials;
+		options.slice_years = slice_years;
+		options.slice_venue = slice_venue;
+		options.first_year = first_year;
+		options.last_year = last_year;
+		options.venue = venue;
+		options.serve = serve;
+		options.port = port;
+		options.cache = cache;
+		return options;
+	}
+
+	/***
+	 * @return the file name with _<mode> added before its extensions, null for a null name.
+	 */
+	public static String mode_file_name(String name, int mode)
+	{
+		return suffixed_file_name(name, Integer.toString(mode));
+	}
+
+	/***
+	 * @return the file name with _<suffix> added before its extensions, null for a null name.
+	 */
+	public static String suffixed_file_name(String name, String suffix)
+	{
+		if (name == null)
+		{
+			return null;
+		}
+
+		int start = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1;
+		int dot = name.indexOf('.', start);
+		if (dot <= start)
+		{
+			return name + "_" + suffix;
+		}
+
+		return name.substring(0, dot) + "_" + suffix + name.substring(dot);
+	}
+
+	/***
+	 * @return the value as a positive int or -1 if it is not a positive number.
+	 */
+	private static int parse_positive(String value)
+	{
+		try
+		{
+			int number = Integer.parseInt(value);
+			return number > 0 ? number : -1;
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+public class OutputWriter
+{
+	/***
+	 *
+	 *	This is a streaming writer for the output files of all the sinks, CSV, Pajek and XML alike.
+	 *
+	 *	Numbers are encoded straight into a reusable byte buffer and names are escaped into bytes once, so writing
+	 *	a cell does not create any objects. The buffer is flushed in fixed size chunks through a FileChannel, or
+	 *	through a GZIPOutputStream when the output is compressed.
+	 */
+
+	public static int CHUNK_SIZE = 1 << 16;
+
+	private static byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+	private FileOutputStream file;
+	private FileChannel channel;
+	private OutputStream gzip;
+
+	private byte[] chunk = new byte[CHUNK_SIZE];
+	private ByteBuffer buffer = ByteBuffer.wrap(chunk);
+	private int length;
+
+	/***
+	 * @param output_file - The file to write, any other file at that path is overwritten.
+	 * @param gzip - Compress the output with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public OutputWriter(File output_file, boolean gzip) throws IOException
+	{
+		this.file = new FileOutputStream(output_file, false);
+		if (gzip || output_file.getName().toLowerCase().endsWith(".gz"))
+		{
+			this.gzip = new GZIPOutputStream(file, CHUNK_SIZE);
+		}
+		else
+		{
+			this.channel = file.getChannel();
+		}
+	}
+
+	public void write(byte[] bytes) throws IOException
+	{
+		if (bytes.length > chunk.length - length)
+		{
+			flush();
+			if (bytes.length > chunk.length)
+			{
+				write_through(bytes, bytes.length);
+				return;
+			}
+		}
+
+		System.arraycopy(bytes, 0, chunk, length, bytes.length);
+		length += bytes.length;
+	}
+
+	public void write(String text) throws IOException
+	{
+		write(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/***
+	 * Writes a single ASCII character, like the separator.
+	 */
+	public void write(char c) throws IOException
+	{
+		if (length == chunk.length)
+		{
+			flush();
+		}
+
+		chunk[length++] = (byte) c;
+	}
+
+	/***
+	 * Writes the decimal digits of a number.
+	 */
+	public void write_int(int value) throws IOException
+	{
+		if (chunk.length - length < 11)
+		{
+			flush();
+		}
+
+		if (value >= 0 && value < 10)
+		{
+			// Most cells of a matrix are 0, so single digits are written straight away
+			chunk[length++] = (byte) ('0' + value);
+			return;
+		}
+
+		write_long(value);
+	}
+
+	/***
+	 * Writes the decimal digits of a number that may not fit in an int, like a count of edges.
+	 */
+	public void write_long(long number) throws IOException
+	{
+		if (chunk.length - length < 20)
+		{
+			flush();
+		}
+
+		if (number < 0)
+		{
+			chunk[length++] = '-';
+			number = -number;
+		}
+
+		int digits = 1;
+		for (long rest = number / 10; rest > 0; rest /= 10)
+		{
+			digits++;
+		}
+
+		int position = length + digits;
+		length = position;
+		do
+		{
+			chunk[--position] = (byte) ('0' + number % 10);
+			number /= 10;
+		}
+		while (number > 0);
+	}
+
+	public void end_line() throws IOException
+	{
+		write(LINE_SEPARATOR);
+	}
+
+	/***
+	 * Writes out the buffered chunk.
+	 */
+	public void flush() throws IOException
+	{
+		if (length > 0)
+		{
+			write_through(chunk, length);
+			length = 0;
+		}
+	}
+
+	public void close() throws IOException
+	{
+		try
+		{
+			flush();
+			if (gzip != null)
+			{
+				gzip.close();
+			}
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	private void write_through(byte[] bytes, int count) throws IOException
+	{
+		if (gzip != null)
+		{
+			gzip.write(bytes, 0, count);
+			return;
+		}
+
+		ByteBuffer out = bytes == chunk ? buffer : ByteBuffer.wrap(bytes);
+		out.clear();
+		out.limit(count);
+		while (out.hasRemaining())
+		{
+			channel.write(out);
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package netdriller.parser;
+
+import java.util.Arrays;
+
+public class PairCounter
+{
+	/***
+	 *
+	 *	This is a counter keyed by a pair of int IDs.
+	 *
+	 *	Both IDs are packed into a single long key (first ID in the high 32 bits) and the counts are kept
+	 *	in parallel primitive arrays with open addressing, so an increment does not allocate anything.
+	 */
+
+	private static final long EMPTY = -1L; // IDs are never negative, so this can never be a packed pair
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int mask;
+
+	public PairCounter()
+	{
+		this(1024);
+	}
+
+	/***
+	 * @param expected - The number of pairs the counter should hold before it has to grow.
+	 */
+	public PairCounter(int expected)
+	{
+		int capacity = 16;
+		while (capacity < expected * 2)
+		{
+			capacity *= 2;
+		}
+
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+		this.mask = capacity - 1;
+		Arrays.fill(keys, EMPTY);
+	}
+
+	public static long pack(int first, int second)
+	{
+		return ((long) first << 32) | (second & 0xffffffffL);
+	}
+
+	public static int first(long key)
+	{
+		return (int) (key >>> 32);
+	}
+
+	public static int second(long key)
+	{
+		return (int) key;
+	}
+
+	/***
+	 * @param key - A packed pair of IDs.
+	 * @param delta - The amount to add to the count of the pair.
+	 */
+	public void add(long key, int delta)
+	{
+		int slot = find_slot(key);
+		if (keys[slot] == EMPTY)
+		{
+			keys[slot] = key;
+			size++;
+
+			// Keep the table at most half full
+			if (size * 2 > keys.length)
+			{
+				values[slot] = delta;
+				grow();
+				return;
+			}
+		}
+
+		values[slot] += delta;
+	}
+
+	/***
+	 * @param key - A packed pair of IDs.
+	 * @return the count of the pair, 0 if the pair was never counted.
+	 */
+	public int get(long key)
+	{
+		int slot = find_slot(key);
+		return keys[slot] == EMPTY ? 0 : values[slot];
+	}
+
+	/***
+	 * Adds all the counts of another counter to this counter.
+	 *
+	 * @param other - The counter to add, it is not changed.
+	 */
+	public void merge(PairCounter other)
+	{
+		for (int i = 0; i < other.keys.length; i++)
+		{
+			if (other.keys[i] != EMPTY)
+			{
+				add(other.keys[i], other.values[i]);
+			}
+		}
+	}
+
+	/***
+	 * @return the number of distinct pairs that were counted.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/***
+	 * Removes all the counts, the counter keeps its capacity.
+	 */
+	public void clear()
+	{
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(values, 0);
+		size = 0;
+	}
+
+	/***
+	 * @return all the counted pairs, sorted by the first ID and then by the second ID.
+	 */
+	public long[] sorted_keys()
+	{
+		long[] sorted = new long[size];
+		int i = 0;
+		for (long key : keys)
+		{
+			if (key != EMPTY)
+			{
+				sorted[i++] = key;
+			}
+		}
+
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/***
+	 * @param both_directions - Also list every pair of two different IDs as (second, first). This is meant for
+	 *                          counters that store every pair once as (smaller ID, larger ID), like a one-mode graph.
+	 * @return a cursor over the counted pairs, sorted by the first ID and then by the second ID.
+	 */
+	public EdgeCursor cursor(boolean both_directions)
+	{
+		long[] sorted = sorted_keys();
+		if (both_directions)
+		{
+			long[] both = Arrays.copyOf(sorted, sorted.length * 2);
+			int n = sorted.length;
+			for (long key : sorted)
+			{
+				if (first(key) != second(key))
+				{
+					both[n++] = pack(second(key), first(key));
+				}
+			}
+
+			sorted = Arrays.copyOf(both, n);
+			Arrays.sort(sorted);
+		}
+
+		return new SortedCursor(sorted, both_directions);
+	}
+
+	private int find_slot(long key)
+	{
+		int slot = mix(key) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	private void grow()
+	{
+		long[] old_keys = keys;
+		int[] old_values = values;
+
+		keys = new long[old_keys.length * 2];
+		values = new int[old_values.length * 2];
+		mask = keys.length - 1;
+		Arrays.fill(keys, EMPTY);
+
+		for (int i = 0; i < old_keys.length; i++)
+		{
+			if (old_keys[i] != EMPTY)
+			{
+				int slot = find_slot(old_keys[i]);
+				keys[slot] = old_keys[i];
+				values[slot] = old_values[i];
+			}
+		}
+	}
+
+	private static int mix(long key)
+	{
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	/***
+	 * Walks a sorted array of pairs and looks up their counts.
+	 */
+	private class SortedCursor implements EdgeCursor
+	{
+		private long[] sorted;
+		private boolean both_directions;
+		private int index = -1;
+		private long key;
+		private int weight;
+
+		SortedCursor(long[] sorted, boolean both_directions)
+		{
+			this.sorted = sorted;
+			this.both_directions = both_directions;
+		}
+
+		@Override
+		public boolean next()
+		{
+			if (sorted == null || ++index >= sorted.length)
+			{
+				close();
+				return false;
+			}
+
+			key = sorted[index];
+
+			// A pair listed the other way around is stored as (smaller ID, larger ID)
+			weight = get(!both_directions || first(key) <= second(key) ? key : pack(second(key), first(key)));
+			return true;
+		}
+
+		@Override
+		public int row()
+		{
+			return first(key);
+		}
+
+		@Override
+		public int column()
+		{
+			return second(key);
+		}
+
+		@Override
+		public int weight()
+		{
+			return weight;
+		}
+
+		@Override
+		public void close()
+		{
+			sorted = null;
+		}
+	}
+}
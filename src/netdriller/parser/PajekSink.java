@@ -0,0 +1,116 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class PajekSink implements GraphSink
+{
+	/***
+	 *
+	 *	This sink writes a graph as a Pajek .net file, see --format=pajek.
+	 *
+	 *	Pajek numbers the vertices from 1 and every vertex line holds the number and the quoted name of the node,
+	 *	then every edge line under *Edges holds the numbers of its two vertices and its weight. The rows of a
+	 *	two-mode graph come first and the header tells how many there are, so Pajek reads it as a two-mode network.
+	 *	Pajek has no way to quote a double quote in a name, so double quotes are written as single quotes.
+	 *
+	 *	The number of a node is found in the sorted IDs of the nodes while the edges are streamed from the
+	 *	EdgeCursor of the graph, so only these IDs and the edge that is being written are held in memory.
+	 *	The .net format has no node attributes, the number of papers of the nodes is in the GraphML and GEXF formats.
+	 */
+
+	private static byte[] VERTICES = "*Vertices ".getBytes(StandardCharsets.UTF_8);
+	private static byte[] EDGES = "*Edges".getBytes(StandardCharsets.UTF_8);
+
+	public boolean gzip;
+
+	/***
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public PajekSink(boolean gzip)
+	{
+		this.gzip = gzip;
+	}
+
+	@Override
+	public String description()
+	{
+		return "Pajek network";
+	}
+
+	@Override
+	public void write(CooccurrenceGraph graph, File output_file) throws IOException
+	{
+		OutputWriter writer = new OutputWriter(output_file, gzip); // Overwrites any other output file!
+		try
+		{
+			int[] rows = graph.row_ids();
+			int[] columns = graph.is_one_mode() ? rows : graph.column_ids();
+			int column_start = graph.is_one_mode() ? 0 : rows.length; // The number of the vertex before the first column
+
+			writer.write(VERTICES);
+			writer.write_int(graph.is_one_mode() ? rows.length : rows.length + columns.length);
+			if (!graph.is_one_mode())
+			{
+				writer.write(' ');
+				writer.write_int(rows.length);
+			}
+			writer.end_line();
+
+			write_vertices(writer, graph.rows, rows, 0);
+			if (!graph.is_one_mode())
+			{
+				write_vertices(writer, graph.columns, columns, column_start);
+			}
+
+			writer.write(EDGES);
+			writer.end_line();
+
+			// A one-mode graph only stores the upper triangle, so every undirected pair is already there once
+			EdgeCursor edges = graph.edges();
+			try
+			{
+				while (edges.next())
+				{
+					writer.write_int(Arrays.binarySearch(rows, edges.row()) + 1);
+					writer.write(' ');
+					writer.write_int(column_start + Arrays.binarySearch(columns, edges.column()) + 1);
+					writer.write(' ');
+					writer.write_int(edges.weight());
+					writer.end_line();
+				}
+			}
+			finally
+			{
+				edges.close();
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	private static void write_vertices(OutputWriter writer, SymbolTable table, int[] ids, int start) throws IOException
+	{
+		for (int i = 0; i < ids.length; i++)
+		{
+			writer.write_int(start + i + 1);
+			writer.write(' ');
+			writer.write('"');
+			writer.write(escape(table.name(ids[i])));
+			writer.write('"');
+			writer.end_line();
+		}
+	}
+
+	/***
+	 * @return the name as it is written between the double quotes of a vertex line.
+	 */
+	public static byte[] escape(String name)
+	{
+		return name.replace('"', '\'').replace('\n', ' ').replace('\r', ' ').getBytes(StandardCharsets.UTF_8);
+	}
+}
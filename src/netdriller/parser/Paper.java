@@ -0,0 +1,142 @@
+package netdriller.parser;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+public class Paper 
+{
+	/***
+	 * 
+	 * 	@author Arkady (Eric) Eidelberg ( ninuson123@gmail.com )
+	 *	@author Samuel Wong ( sawong@ucalgary.ca )
+	 *
+	 *	This is a container class for each paper in the input class
+	 *	Authors and keywords are interned into symbol tables when the paper is constructed and only their IDs are kept.
+	 */
+	
+	public int[] author_ids;
+	public int[] key_word_ids;
+	public int[] title_term_ids; // Only set when the titles are tokenized, see TitleTokenizer
+	
+	public String title;
+	public String venue;
+	public String year;
+	
+	/***
+	 * @param author_ids - The IDs of the authors in an author symbol table.
+	 * @param key_word_ids - The IDs of the keywords in a keyword symbol table.
+	 * @param title - The title of the paper.
+	 * @param venue - The venue of the paper.
+	 * @param year - The year of the paper.
+	 */
+	public Paper(int[] author_ids, int[] key_word_ids, String title, String venue, String year)
+	{
+		this.author_ids = author_ids;
+		this.key_word_ids = key_word_ids;
+		this.title = title;
+		this.venue = venue;
+		this.year = year;
+	}
+	
+	/***
+	 * @param j_obj - The JSON object of a single paper from the input file.
+	 * @param author_table - The symbol table the upper cased author names are interned into.
+	 * @param key_word_table - The symbol table the upper cased keywords are interned into.
+	 */
+	public Paper(JSONObject j_obj, SymbolTable author_table, SymbolTable key_word_table) throws Exception
+	{
+		this(j_obj, author_table, key_word_table, null);
+	}
+	
+	/***
+	 * @param j_obj - The JSON object of a single paper from the input file.
+	 * @param author_table - The symbol table the author names are interned into.
+	 * @param key_word_table - The symbol table the upper cased keywords are interned into.
+	 * @param author_names - The normalizer of the author names, null to only upper case them.
+	 * @throws IllegalArgumentException if the paper does not follow the schema, the message tells why.
+	 */
+	public Paper(JSONObject j_obj, SymbolTable author_table, SymbolTable key_word_table, NameNormalizer author_names) throws Exception
+	{
+		// Init single properties
+		this.title = text(j_obj, "title");
+		this.venue = text(j_obj, "venue");
+		this.year = text(j_obj, "year");
+		
+		// Populate collections, both are checked before any name is interned
+		JSONArray authors_arr = names(j_obj, "authors");
+		JSONArray key_wrods_arr = names(j_obj, "keywords");
+		this.author_ids = new int[authors_arr.size()];
+		for (int i = 0; i < authors_arr.size(); i++)
+		{
+			String author = (String)authors_arr.get(i);
+			this.author_ids[i] = author_table.intern(author_names == null ? author.toUpperCase() : author_names.normalize(author));
+		}
+		
+		this.key_word_ids = new int[key_wrods_arr.size()];
+		for (int i = 0; i < key_wrods_arr.size(); i++)
+		{
+			String key_word = (String)key_wrods_arr.get(i);
+			this.key_word_ids[i] = key_word_table.intern(key_word.toUpperCase());
+		}
+	}
+	
+	/***
+	 * @return the string value of a key, null if the key is missing or null.
+	 * @throws IllegalArgumentException if the value is not a string.
+	 */
+	private static String text(JSONObject j_obj, String key)
+	{
+		Object value = j_obj.get(key);
+		if (value != null && !(value instanceof String))
+		{
+			throw new IllegalArgumentException("The " + key + " of the paper is not a string.");
+		}
+		
+		return (String) value;
+	}
+	
+	/***
+	 * @return the array of names of a key.
+	 * @throws IllegalArgumentException if the key is missing or its value is not an array of strings.
+	 */
+	private static JSONArray names(JSONObject j_obj, String key)
+	{
+		Object value = j_obj.get(key);
+		if (value == null)
+		{
+			throw new IllegalArgumentException("The paper has no " + key + " array.");
+		}
+		
+		if (!(value instanceof JSONArray))
+		{
+			throw new IllegalArgumentException("The " + key + " of the paper are not an array of strings.");
+		}
+		
+		for (Object name : (JSONArray) value)
+		{
+			if (!(name instanceof String))
+			{
+				throw new IllegalArgumentException("The " + key + " of the paper are not an array of strings.");
+			}
+		}
+		
+		return (JSONArray) value;
+	}
+	
+	/***
+	 * @return true if the ID at the index of a list of IDs is also listed before it, like an author listed twice on a paper.
+	 */
+	public static boolean is_repeated(int[] ids, int index)
+	{
+		for (int i = 0; i < index; i++)
+		{
+			if (ids[i] == ids[index])
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+
+}
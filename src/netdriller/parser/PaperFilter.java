@@ -0,0 +1,114 @@
+package netdriller.parser;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class PaperFilter
+{
+	/***
+	 *
+	 *	This class decides which papers are counted, by a window of years and by venue (see --years and --venue).
+	 *
+	 *	A paper without a year that is a number is left out by a window of years, and a paper without a venue is
+	 *	left out by a venue. Venues are compared without case and without the spaces around them.
+	 */
+
+	public int first_year; // 0 keeps all the years
+	public int last_year;
+	public String venue; // null keeps all the venues
+
+	/***
+	 * @param options - The options with the years and the venue of the papers to count.
+	 */
+	public PaperFilter(Options options)
+	{
+		this.first_year = options.first_year;
+		this.last_year = options.last_year;
+		this.venue = options.venue == null ? null : options.venue.trim();
+	}
+
+	/***
+	 * @return true if the paper is counted.
+	 */
+	public boolean accept(Paper paper)
+	{
+		if (first_year > 0)
+		{
+			if (paper.year == null)
+			{
+				return false;
+			}
+
+			try
+			{
+				int year = Integer.parseInt(paper.year.trim());
+				if (year < first_year || year > last_year)
+				{
+					return false;
+				}
+			}
+			catch (NumberFormatException e)
+			{
+				return false;
+			}
+		}
+
+		return venue == null || (paper.venue != null && paper.venue.trim().equalsIgnoreCase(venue));
+	}
+
+	/***
+	 * @return a name of the filter, two filters with the same name keep the same papers.
+	 */
+	public String key()
+	{
+		return (first_year > 0 ? first_year + "-" + last_year : "") + "|" + (venue == null ? "" : venue.toUpperCase());
+	}
+
+	/***
+	 * @param papers - The papers to filter, read one at a time.
+	 * @return the papers that are counted, read one at a time while the given papers are read.
+	 */
+	public Iterable<Paper> filter(final Iterable<Paper> papers)
+	{
+		return new Iterable<Paper>()
+		{
+			@Override
+			public Iterator<Paper> iterator()
+			{
+				final Iterator<Paper> all = papers.iterator();
+				return new Iterator<Paper>()
+				{
+					private Paper pending = null;
+
+					@Override
+					public boolean hasNext()
+					{
+						while (pending == null && all.hasNext())
+						{
+							Paper paper = all.next();
+							if (accept(paper))
+							{
+								pending = paper;
+							}
+						}
+
+						return pending != null;
+					}
+
+					@Override
+					public Paper next()
+					{
+						if (!hasNext())
+						{
+							throw new NoSuchElementException();
+						}
+
+						Paper paper = pending;
+						pending = null;
+						return paper;
+					}
+				};
+			}
+		};
+	}
+}
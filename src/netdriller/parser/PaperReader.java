@@ -0,0 +1,324 @@
+package netdriller.parser;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+public class PaperReader implements PaperSource, Iterator<Paper>, ContentHandler
+{
+	/***
+	 *
+	 *	This is a streaming reader for the input file.
+	 *
+	 *	Instead of parsing the whole file into one JSONArray, the outermost array is walked with the json-simple
+	 *	ContentHandler interface. The parser is paused every time a paper object is completed, so only one
+	 *	paper is held in memory at any given time and it is handed straight to the aggregation step.
+	 *	In lenient mode papers that do not follow the schema are skipped. The parser can not pick up again after
+	 *	JSON that is not proper, so the rest of the input is skipped then, MappedPaperReader can skip just the paper.
+	 */
+
+	private String file_path;
+	private SymbolTable author_table;
+	private SymbolTable key_word_table;
+	private PushbackReader reader;
+	private JSONParser parser;
+
+	// The values that are still being built, the last element is the innermost one.
+	// Pending object keys are kept on this stack as Strings right above the object they belong to.
+	private ArrayList<Object> stack;
+
+	private boolean started;
+	private boolean finished;
+	private Object pending;
+	private Paper paper; // The next paper to hand out
+	private int count;
+	private long records; // The papers read so far, including the skipped ones
+
+	public RunReport report = null; // The parse and construct phases are timed if set
+	public TitleTokenizer title_terms = null; // The terms of the titles are extracted if set
+	public NameNormalizer author_names = null; // The author names are normalized with it if set
+	public RecordErrors errors = null; // Papers that do not follow the schema are skipped and added to it if set
+
+	/***
+	 * @param file_path - The path of the input file, used for the status messages.
+	 * @param reader - A reader over the content of the input file.
+	 * @param author_table - The symbol table author names are interned into.
+	 * @param key_word_table - The symbol table keywords are interned into.
+	 */
+	public PaperReader(String file_path, Reader reader, SymbolTable author_table, SymbolTable key_word_table)
+	{
+		this.file_path = file_path;
+		this.author_table = author_table;
+		this.key_word_table = key_word_table;
+		this.reader = new PushbackReader(reader);
+		this.parser = new JSONParser();
+		this.stack = new ArrayList<Object>();
+	}
+
+	/***
+	 * @return true if the input has nothing but white space in it.
+	 */
+	public boolean is_empty() throws IOException
+	{
+		int c = reader.read();
+		while (c != -1 && Character.isWhitespace(c))
+		{
+			c = reader.read();
+		}
+
+		if (c == -1)
+		{
+			return true;
+		}
+
+		reader.unread(c);
+		return false;
+	}
+
+	/***
+	 * @return the number of papers that were read so far.
+	 */
+	public int count()
+	{
+		return count;
+	}
+
+	@Override
+	public Iterator<Paper> iterator()
+	{
+		return this;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while (paper == null && !finished)
+		{
+			Object obj = parse_next();
+			if (obj != null)
+			{
+				records++;
+				paper = construct(obj);
+			}
+		}
+
+		return paper != null;
+	}
+
+	@Override
+	public Paper next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		Paper next = paper;
+		paper = null;
+		return next;
+	}
+
+	/***
+	 * @return the next paper object of the outermost array, or null at the end of the input.
+	 */
+	private Object parse_next()
+	{
+		try
+		{
+			// Parse until the next paper object was completed or until the end of the input
+			long start = System.nanoTime();
+			long read_time = report == null ? 0 : report.time(RunReport.READ);
+			parser.parse(reader, this, started);
+			if (report != null)
+			{
+				// The reader is timed on its own, only the tokenizing is left in the parse phase
+				report.add_time(RunReport.PARSE, start);
+				report.remove_time(RunReport.PARSE, report.time(RunReport.READ) - read_time);
+			}
+			if (pending == null)
+			{
+				finished = true;
+				reader.close();
+				System.out.println("The file " + file_path + " was successfuly parsed!");
+			}
+		}
+		catch (ParseException e)
+		{
+			if (errors == null)
+			{
+				throw new ParserException("The input file contained inproper JSON. Please follow provided instructions.", true);
+			}
+
+			// The papers read so far are kept
+			errors.add(records + 1, e.getPosition(), "The input is not proper JSON from here on, the rest of the input was skipped. " + e, "");
+			System.out.println("The input file contained inproper JSON at position " + e.getPosition() + ", the rest of the input was skipped.");
+			finished = true;
+		}
+		catch (IOException e)
+		{
+			throw new ParserException("There was an error raeding and/or closing the file. Make sure the file " + file_path + " exists and that the proper permissions are given to it.", true);
+		}
+
+		Object obj = pending;
+		pending = null;
+		return obj;
+	}
+
+	/***
+	 * @return the paper of a parsed object, or null if it was skipped.
+	 */
+	private Paper construct(Object obj)
+	{
+		Paper paper = null;
+		try
+		{
+			long start = System.nanoTime();
+			if (!(obj instanceof JSONObject))
+			{
+				throw new IllegalArgumentException("The paper is not an object.");
+			}
+
+			paper = new Paper((JSONObject) obj, author_table, key_word_table, author_names);
+			if (title_terms != null)
+			{
+				paper.title_term_ids = title_terms.terms(paper.title);
+			}
+			count++;
+			if (report != null)
+			{
+				report.add_time(RunReport.CONSTRUCT, start);
+			}
+		}
+		catch (Exception e)
+		{
+			String text = obj instanceof JSONObject ? ((JSONObject) obj).toJSONString() : String.valueOf(obj);
+			if (errors == null)
+			{
+				throw new ParserException("Was unable to parse parts of the input JSON. Please follow instructions." + System.lineSeparator()
+						+ "Error at: " + text, true);
+			}
+
+			errors.add(records, -1, e.getMessage() == null ? e.toString() : e.getMessage(), text);
+		}
+
+		return paper;
+	}
+
+	/***
+	 * Adds a completed value to its parent container.
+	 *
+	 * @param value - A primitive, JSONObject or JSONArray that was completed by the parser.
+	 * @return false if the value is a paper of the outermost array, so the parser pauses and hands it over.
+	 */
+	@SuppressWarnings("unchecked") // JSONObject and JSONArray are raw collections
+	private boolean add_value(Object value)
+	{
+		if (stack.isEmpty())
+		{
+			pending = value;
+			return false;
+		}
+
+		Object top = stack.get(stack.size() - 1);
+		if (top instanceof String)
+		{
+			stack.remove(stack.size() - 1);
+			JSONObject parent = (JSONObject) stack.get(stack.size() - 1);
+			parent.put(top, value);
+		}
+		else
+		{
+			((JSONArray) top).add(value);
+		}
+
+		return true;
+	}
+
+	@Override
+	public void startJSON() throws ParseException, IOException
+	{
+	}
+
+	@Override
+	public void endJSON() throws ParseException, IOException
+	{
+	}
+
+	@Override
+	public boolean startObject() throws ParseException, IOException
+	{
+		if (!started)
+		{
+			// The outermost value has to be an array of papers
+			throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN);
+		}
+
+		stack.add(new JSONObject());
+		return true;
+	}
+
+	@Override
+	public boolean endObject() throws ParseException, IOException
+	{
+		return add_value(stack.remove(stack.size() - 1));
+	}
+
+	@Override
+	public boolean startObjectEntry(String key) throws ParseException, IOException
+	{
+		stack.add(key);
+		return true;
+	}
+
+	@Override
+	public boolean endObjectEntry() throws ParseException, IOException
+	{
+		return true;
+	}
+
+	@Override
+	public boolean startArray() throws ParseException, IOException
+	{
+		if (!started)
+		{
+			// This is the outermost array that contains a list of papers
+			started = true;
+			return true;
+		}
+
+		stack.add(new JSONArray());
+		return true;
+	}
+
+	@Override
+	public boolean endArray() throws ParseException, IOException
+	{
+		if (stack.isEmpty())
+		{
+			// The outermost array is done
+			return true;
+		}
+
+		return add_value(stack.remove(stack.size() - 1));
+	}
+
+	@Override
+	public boolean primitive(Object value) throws ParseException, IOException
+	{
+		if (!started)
+		{
+			throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN);
+		}
+
+		return add_value(value);
+	}
+}
@@ -0,0 +1,24 @@
+package netdriller.parser;
+
+import java.io.IOException;
+
+public interface PaperSource extends Iterable<Paper>
+{
+	/***
+	 *
+	 *	This is a source of the papers of an input file, read one at a time while they are counted.
+	 *
+	 *	The papers can only be read once. A source that can not read its input throws a ParserException
+	 *	while it is iterated.
+	 */
+
+	/***
+	 * @return true if the input holds no papers at all, this reads up to the first paper.
+	 */
+	boolean is_empty() throws IOException;
+
+	/***
+	 * @return the number of papers handed out so far.
+	 */
+	int count();
+}
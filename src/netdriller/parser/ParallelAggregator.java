@@ -0,0 +1,207 @@
+package netdriller.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+
+public class ParallelAggregator
+{
+	/***
+	 *
+	 *	This class counts papers into a graph on several threads.
+	 *
+	 *	The papers are read on the calling thread and handed to a fork-join pool in chunks. Every worker thread
+	 *	counts its chunks into its own partial graph, so no locking is needed while counting. When all the papers
+	 *	were read, the partial graphs are merged pairwise in parallel. The weights are sums and nodes are listed
+	 *	in ID order, so the result is exactly the graph the sequential Parser.aggregate would build.
+	 *	The merged counts are finally added to the graph that was passed in.
+	 *	When several modes are counted at once, every worker keeps a partial graph per mode, and when the papers are
+	 *	sliced, per mode in every slice it has seen, see GraphSlices.
+	 */
+
+	public static int CHUNK_SIZE = 4096; // Number of papers handed to a worker at a time
+
+	private GraphSlices slices;
+
+	private ForkJoinPool pool;
+	private Semaphore chunks_in_flight; // Bounds the number of papers waiting in memory for a worker
+	private List<GraphSlices> partials;
+	private ThreadLocal<GraphSlices> partial;
+
+	private ParallelAggregator(GraphSlices slices, int threads)
+	{
+		this.slices = slices;
+		this.pool = new ForkJoinPool(threads);
+		this.chunks_in_flight = new Semaphore(threads * 2);
+		this.partials = Collections.synchronizedList(new ArrayList<GraphSlices>());
+		this.partial = new ThreadLocal<GraphSlices>();
+	}
+
+	/***
+	 * @param papers - All the Paper(s) (container class for input) that were provided as input, read one at a time.
+	 * @param mode - The mode that decides which nodes and edges a paper adds, see Parser.aggregator.
+	 * @param graph - The graph the papers are counted into, it may already hold counts.
+	 * @param threads - The number of worker threads.
+	 */
+	public static void aggregate(Iterable<Paper> papers, int mode, CooccurrenceGraph graph, int threads)
+	{
+		aggregate(papers, new int[] { mode }, new CooccurrenceGraph[] { graph }, threads);
+	}
+
+	/***
+	 * @param papers - All the Paper(s) (container class for input) that were provided as input, read one at a time.
+	 * @param modes - The modes that decide which nodes and edges a paper adds, see Parser.aggregator.
+	 * @param graphs - The graph of every mode, they may already hold counts.
+	 * @param threads - The number of worker threads.
+	 */
+	public static void aggregate(Iterable<Paper> papers, int[] modes, CooccurrenceGraph[] graphs, int threads)
+	{
+		aggregate(papers, new GraphSlices(Parser.aggregators(modes, graphs), graphs), threads);
+	}
+
+	/***
+	 * @param papers - All the Paper(s) (container class for input) that were provided as input, read one at a time.
+	 * @param slices - The graphs the papers are counted into, they may already hold counts.
+	 * @param threads - The number of worker threads.
+	 */
+	public static void aggregate(Iterable<Paper> papers, GraphSlices slices, int threads)
+	{
+		ParallelAggregator aggregator = new ParallelAggregator(slices, threads);
+		try
+		{
+			aggregator.run(papers);
+		}
+		finally
+		{
+			aggregator.pool.shutdown();
+		}
+	}
+
+	private void run(Iterable<Paper> papers)
+	{
+		ArrayList<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+		ArrayList<Paper> chunk = new ArrayList<Paper>(CHUNK_SIZE);
+
+		for (Paper paper : papers)
+		{
+			chunk.add(paper);
+			if (chunk.size() == CHUNK_SIZE)
+			{
+				tasks.add(submit(chunk));
+				chunk = new ArrayList<Paper>(CHUNK_SIZE);
+			}
+		}
+
+		if (!chunk.isEmpty())
+		{
+			tasks.add(submit(chunk));
+		}
+
+		// Wait for all the chunks, this also rethrows anything a worker has thrown
+		for (ForkJoinTask<?> task : tasks)
+		{
+			task.join();
+		}
+
+		if (!partials.isEmpty())
+		{
+			slices.merge(pool.invoke(new MergeTask(partials, 0, partials.size())));
+		}
+	}
+
+	private ForkJoinTask<?> submit(List<Paper> chunk)
+	{
+		chunks_in_flight.acquireUninterruptibly();
+		return pool.submit(new CountTask(chunk));
+	}
+
+	/***
+	 * Counts a chunk of papers into the partial graphs of the worker thread.
+	 */
+	private class CountTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private List<Paper> chunk;
+
+		CountTask(List<Paper> chunk)
+		{
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute()
+		{
+			try
+			{
+				GraphSlices partial_slices = partial.get();
+				if (partial_slices == null)
+				{
+					partial_slices = slices.partial(pool.getParallelism());
+					partial.set(partial_slices);
+					partials.add(partial_slices);
+				}
+
+				for (Paper paper : chunk)
+				{
+					partial_slices.count(paper);
+				}
+			}
+			finally
+			{
+				// Let go of the papers as the task is kept until the end of the run
+				chunk = null;
+				chunks_in_flight.release();
+			}
+		}
+	}
+
+	/***
+	 * Merges a range of partial graphs, the two halves of the range are merged in parallel.
+	 */
+	private static class MergeTask extends RecursiveTask<GraphSlices>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private List<GraphSlices> graphs;
+		private int from;
+		private int to;
+
+		MergeTask(List<GraphSlices> graphs, int from, int to)
+		{
+			this.graphs = graphs;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected GraphSlices compute()
+		{
+			if (to - from == 1)
+			{
+				return graphs.get(from);
+			}
+
+			int middle = (from + to) / 2;
+			MergeTask left = new MergeTask(graphs, from, middle);
+			left.fork();
+			GraphSlices right = new MergeTask(graphs, middle, to).compute();
+			GraphSlices merged = left.join();
+
+			// Merge the smaller graphs into the larger ones
+			if (merged.size() < right.size())
+			{
+				right.merge(merged);
+				return right;
+			}
+
+			merged.merge(right);
+			return merged;
+		}
+	}
+}
@@ -0,0 +1,526 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.json.simple.parser.ParseException;
+
+public class ParallelPaperReader implements PaperSource, Iterator<Paper>
+{
+	/***
+	 *
+	 *	This is a reader for the input file that decodes the papers of a memory mapped file on several threads.
+	 *
+	 *	The outermost array is split into chunks of about CHUNK_SIZE bytes at the commas between two papers. Finding
+	 *	these commas only tracks strings and brackets, so it is much cheaper than decoding. Every chunk is decoded by
+	 *	a MappedPaperReader on a worker thread, with its own symbol tables, so the workers do not share any state.
+	 *	The chunks are handed out in the order of the file. When a chunk is taken, the names of its tables are
+	 *	interned into the shared tables and the IDs of its papers are mapped to the shared IDs. Names are first
+	 *	seen in the same order as when the file is read on one thread, so they get the same IDs.
+	 *	A paper that does not follow the schema is reported once all the papers before it were handed out.
+	 *	In lenient mode such papers are skipped, and the skipped papers of a chunk are added to the errors in order.
+	 *	Every worker keeps one TitleTokenizer, so the words of the titles are only stemmed once per worker.
+	 */
+
+	public static int CHUNK_SIZE = 1 << 22; // Bytes of the input decoded by a worker at a time
+
+	private String file_path;
+	private MappedFile in;
+	private SymbolTable author_table;
+	private SymbolTable key_word_table;
+	private SymbolTable term_table;
+
+	private ForkJoinPool pool;
+	private int max_in_flight; // Bounds the number of decoded chunks waiting in memory
+	private ArrayDeque<ForkJoinTask<Chunk>> in_flight = new ArrayDeque<ForkJoinTask<Chunk>>();
+	private ThreadLocal<TitleTokenizer> title_terms = new ThreadLocal<TitleTokenizer>(); // Every worker keeps its stems from chunk to chunk
+
+	private boolean started;
+	private boolean split; // Set once the whole array was split into chunks
+	private boolean unclosed; // Set if the input ends before the array is closed
+	private byte[] brackets = new byte[64]; // The brackets that are open while the array is split
+	private boolean finished;
+	private Chunk chunk; // The chunk whose papers are being handed out
+	private int next_paper;
+	private int count;
+	private long records; // The papers of the chunks taken so far, including the skipped ones
+
+	public RunReport report = null; // The parse phase is timed if set
+	public NameNormalizer author_names = null; // The author names are normalized with it if set
+	public RecordErrors errors = null; // Papers that do not follow the schema are skipped and added to it if set
+
+	/***
+	 * @param file_path - The path of the input file.
+	 * @param author_table - The symbol table author names are interned into.
+	 * @param key_word_table - The symbol table keywords are interned into.
+	 * @param term_table - The symbol table the terms of the titles are interned into, null to not extract them.
+	 * @param threads - The number of threads the papers are decoded on.
+	 */
+	public ParallelPaperReader(String file_path, SymbolTable author_table, SymbolTable key_word_table, SymbolTable term_table, int threads) throws IOException
+	{
+		this.file_path = file_path;
+		this.in = new MappedFile(new File(file_path));
+		this.author_table = author_table;
+		this.key_word_table = key_word_table;
+		this.term_table = term_table;
+		this.pool = new ForkJoinPool(threads);
+		this.max_in_flight = threads * 2;
+	}
+
+	/***
+	 * @return true if the input has nothing but white space in it.
+	 */
+	public boolean is_empty() throws IOException
+	{
+		skip_whitespace();
+		boolean empty = in.peek() == -1;
+		if (empty)
+		{
+			release();
+		}
+
+		return empty;
+	}
+
+	/***
+	 * @return the number of papers that were handed out so far.
+	 */
+	public int count()
+	{
+		return count;
+	}
+
+	@Override
+	public Iterator<Paper> iterator()
+	{
+		return this;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (finished)
+		{
+			return false;
+		}
+
+		boolean failed = true;
+		try
+		{
+			long start = System.nanoTime();
+			boolean has_next = next_chunk();
+			if (report != null)
+			{
+				report.add_time(RunReport.PARSE, start);
+			}
+
+			if (!has_next)
+			{
+				finished = true;
+				pool.shutdown();
+				in.close();
+				System.out.println("The file " + file_path + " was successfuly parsed!");
+			}
+
+			failed = false;
+		}
+		catch (ParseException e)
+		{
+			throw new ParserException("The input file contained inproper JSON. Please follow provided instructions.", true);
+		}
+		catch (IOException e)
+		{
+			throw new ParserException("There was an error raeding and/or closing the file. Make sure the file " + file_path + " exists and that the proper permissions are given to it.", true);
+		}
+		finally
+		{
+			if (failed)
+			{
+				release();
+			}
+		}
+
+		return !finished;
+	}
+
+	/***
+	 * Stops the workers and closes the input file after an error or an empty input, nothing more can be read.
+	 */
+	private void release()
+	{
+		finished = true;
+		chunk = null;
+		in_flight.clear();
+		pool.shutdownNow();
+		try
+		{
+			in.close();
+		}
+		catch (IOException e)
+		{
+			// The error that stopped the reading is the one that is reported
+		}
+	}
+
+	@Override
+	public Paper next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		count++;
+		return chunk.papers.get(next_paper++);
+	}
+
+	/***
+	 * Moves on to the next chunk until there is a paper left to hand out.
+	 *
+	 * @return false at the end of the array.
+	 */
+	private boolean next_chunk() throws IOException, ParseException
+	{
+		while (chunk == null || next_paper == chunk.papers.size())
+		{
+			if (chunk != null && errors == null)
+			{
+				// All the papers before an error were handed out, the error can be reported now
+				if (!chunk.skipped.isEmpty())
+				{
+					Skipped bad = chunk.skipped.get(0);
+					throw new ParserException("Was unable to parse parts of the input JSON. Please follow instructions." + System.lineSeparator()
+							+ "Error at: " + MappedPaperReader.error_text(in, bad.from, bad.to), true);
+				}
+
+				if (chunk.error != null)
+				{
+					throw chunk.error;
+				}
+			}
+
+			// Keep the workers busy with the chunks that follow
+			while (!split && in_flight.size() < max_in_flight)
+			{
+				submit_next();
+			}
+
+			if (in_flight.isEmpty())
+			{
+				chunk = null;
+				return false;
+			}
+
+			chunk = in_flight.poll().join();
+			next_paper = 0;
+			to_shared_ids(chunk);
+			if (errors != null)
+			{
+				add_errors(chunk);
+			}
+		}
+
+		return true;
+	}
+
+	/***
+	 * Finds the next chunk of the array and hands it to a worker.
+	 */
+	private void submit_next() throws IOException, ParseException
+	{
+		Chunk next = new Chunk();
+		next.lenient = errors != null;
+		if (!started)
+		{
+			// This is the outermost array that contains a list of papers
+			skip_whitespace();
+			expect('[');
+			started = true;
+			next.first = true;
+		}
+
+		next.from = in.position();
+		next.to = next_chunk_end();
+		in_flight.add(pool.submit(new DecodeTask(next)));
+
+		if (split)
+		{
+			// Nothing but white space may follow the array, this is reported after all the papers
+			skip_whitespace();
+			int c = unclosed ? -1 : in.read();
+			if (unclosed || c != -1)
+			{
+				Chunk end = new Chunk();
+				end.error = unexpected(c);
+				in_flight.add(pool.submit(new DecodeTask(end)));
+			}
+		}
+	}
+
+	/***
+	 * Skips to the first comma between two papers after CHUNK_SIZE bytes, or to the end of the array.
+	 * A closing bracket that does not match closes the brackets that are still open up to its match, so a paper
+	 * that is missing a bracket does not shift all the papers after it.
+	 *
+	 * @return the position of the comma or of the closing bracket of the array, which are not part of the chunk.
+	 */
+	private long next_chunk_end() throws IOException
+	{
+		long start = in.position();
+		int depth = 0;
+		boolean in_string = false;
+		while (true)
+		{
+			int c = in.read();
+			if (c == -1)
+			{
+				// The array is not closed, this is reported after all the papers
+				split = true;
+				unclosed = true;
+				return in.position();
+			}
+
+			if (in_string)
+			{
+				if (c == '\\')
+				{
+					in.read();
+				}
+				else if (c == '"')
+				{
+					in_string = false;
+				}
+			}
+			else if (c == '"')
+			{
+				in_string = true;
+			}
+			else if (c == '{' || c == '[')
+			{
+				if (depth == brackets.length)
+				{
+					brackets = Arrays.copyOf(brackets, depth * 2);
+				}
+
+				brackets[depth++] = (byte) c;
+			}
+			else if (c == '}' || c == ']')
+			{
+				if (depth == 0)
+				{
+					split = true;
+					return in.position() - 1;
+				}
+
+				int open = c == '}' ? '{' : '[';
+				int match = depth - 1;
+				while (match > 0 && brackets[match] != open)
+				{
+					match--;
+				}
+
+				depth = brackets[match] == open ? match : depth - 1;
+			}
+			else if (c == ',' && depth == 0 && in.position() - start > CHUNK_SIZE)
+			{
+				return in.position() - 1;
+			}
+		}
+	}
+
+	/***
+	 * Adds the skipped papers of a chunk to the errors, with their number in the whole array.
+	 */
+	private void add_errors(Chunk chunk) throws IOException
+	{
+		for (Skipped bad : chunk.skipped)
+		{
+			long end = Math.min(bad.to, bad.from + RecordErrors.MAX_TEXT_LENGTH + 1);
+			errors.add(records + bad.record, bad.from, bad.reason, in.text(bad.from, end).trim());
+		}
+
+		if (chunk.error != null)
+		{
+			errors.add(records + 1, chunk.error.getPosition(), "The input does not end after the array of papers. " + chunk.error, "");
+		}
+
+		records += chunk.records;
+	}
+
+	/***
+	 * Interns the names of the tables of a chunk into the shared tables and maps the IDs of its papers to them.
+	 */
+	private void to_shared_ids(Chunk chunk)
+	{
+		int[] authors = shared_ids(chunk.author_table, author_table);
+		int[] key_words = shared_ids(chunk.key_word_table, key_word_table);
+		int[] terms = term_table == null ? null : shared_ids(chunk.term_table, term_table);
+
+		for (Paper paper : chunk.papers)
+		{
+			map_ids(paper.author_ids, authors);
+			map_ids(paper.key_word_ids, key_words);
+			if (terms != null)
+			{
+				map_ids(paper.title_term_ids, terms);
+			}
+		}
+	}
+
+	/***
+	 * @return the shared ID of every ID of the local table.
+	 */
+	private static int[] shared_ids(SymbolTable local, SymbolTable shared)
+	{
+		int[] ids = new int[local.size()];
+		for (int id = 0; id < ids.length; id++)
+		{
+			ids[id] = shared.intern(local.name(id));
+		}
+
+		return ids;
+	}
+
+	private static void map_ids(int[] ids, int[] shared_ids)
+	{
+		for (int i = 0; i < ids.length; i++)
+		{
+			ids[i] = shared_ids[ids[i]];
+		}
+	}
+
+	private void skip_whitespace() throws IOException
+	{
+		int c = in.peek();
+		while (c == ' ' || c == '\t' || c == '\n' || c == '\r')
+		{
+			in.read();
+			c = in.peek();
+		}
+	}
+
+	private void expect(int expected) throws IOException, ParseException
+	{
+		int c = in.read();
+		if (c != expected)
+		{
+			throw unexpected(c);
+		}
+	}
+
+	private ParseException unexpected(int c) throws IOException
+	{
+		return new ParseException((int) Math.min(in.position(), Integer.MAX_VALUE), ParseException.ERROR_UNEXPECTED_CHAR, c == -1 ? "END OF FILE" : Character.valueOf((char) c));
+	}
+
+	/***
+	 * A range of the outermost array and the papers decoded from it.
+	 */
+	static class Chunk
+	{
+		boolean first; // The chunk starts the array, it may be empty
+		boolean lenient; // Papers that do not follow the schema are skipped
+		long from;
+		long to;
+		long records; // The papers of the chunk, including the skipped ones
+
+		ArrayList<Paper> papers = new ArrayList<Paper>();
+		SymbolTable author_table = new SymbolTable("author");
+		SymbolTable key_word_table = new SymbolTable("keyword");
+		SymbolTable term_table = new SymbolTable("term");
+
+		ArrayList<Skipped> skipped = new ArrayList<Skipped>(); // Unless lenient, decoding stops at the first one
+
+		ParseException error; // Set if the chunk is not proper JSON
+
+		/***
+		 * Adds a paper that did not follow the schema, the paper is the text from one position to the other.
+		 */
+		void skip(long from, long to, String reason)
+		{
+			Skipped bad = new Skipped();
+			bad.record = records;
+			bad.from = from;
+			bad.to = to;
+			bad.reason = reason;
+			skipped.add(bad);
+		}
+	}
+
+	/***
+	 * A paper of a chunk that did not follow the schema.
+	 */
+	static class Skipped
+	{
+		long record; // The number of the paper in its chunk, starting at 1
+		long from;
+		long to;
+		String reason;
+	}
+
+	/***
+	 * Decodes the papers of a chunk into its own symbol tables.
+	 */
+	private class DecodeTask extends RecursiveTask<Chunk>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private Chunk chunk;
+
+		DecodeTask(Chunk chunk)
+		{
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected Chunk compute()
+		{
+			if (chunk.error != null)
+			{
+				return chunk;
+			}
+
+			try
+			{
+				MappedPaperReader reader = new MappedPaperReader(in.range(chunk.from, chunk.to), chunk.author_table, chunk.key_word_table);
+				reader.normalize_authors(author_names);
+				if (term_table != null)
+				{
+					// The terms of a chunk go into its own table, so they keep the order they are first seen in
+					TitleTokenizer tokenizer = title_terms.get();
+					if (tokenizer == null)
+					{
+						tokenizer = new TitleTokenizer(chunk.term_table);
+						title_terms.set(tokenizer);
+					}
+					else
+					{
+						tokenizer.use(chunk.term_table);
+					}
+
+					reader.title_terms = tokenizer;
+				}
+
+				reader.read_chunk(chunk);
+			}
+			catch (ParseException e)
+			{
+				chunk.error = e;
+			}
+			catch (IOException e)
+			{
+				throw new ParserException("There was an error raeding and/or closing the file. Make sure the file " + file_path + " exists and that the proper permissions are given to it.", true);
+			}
+
+			return chunk;
+		}
+	}
+}
@@ -0,0 +1,896 @@
+package netdriller.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
+/***
+ * 
+ * 	@author Arkady (Eric) Eidelberg ( ninuson123@gmail.com )
+ *	@author Samuel Wong ( sawong@ucalgary.ca )
+ *
+ *	This is a utility to produce data sets for the NetDriller program based on specific requirements.
+ *	These requirements are outlined under the print_instructions method.
+ *	This is the work of our assignment 2 for the CPSC 572/672 in the University of Calgary for the Winter 2017 Semester.
+ *	Course instructor: Dr. Rokne
+ *
+ *	Additional comments:
+ *	In order to produce the least amount of duplicated nodes we have converted all keywords and author names to upper case in the parsing of the papers.
+ *	Take a look at the Paper.java constructor to change this behavior.
+ *
+ */
+public class Parser 
+{
+	public static int COAUTHORED_PAPERS_MODE = 1;
+	public static int TILTES_AND_KEYWORDS_MODE = 2;
+	public static int AUTHORS_AND_KEYWORDS_MODE = 3;
+	
+	public static boolean DEBUG = false; // Set this to true to see print-out of all the global-maps in all modes.
+	
+	/***
+	 * @param args[0] - <MODE_PARAMETER>, an integer with the value of 1, 2 or 3
+	 * @param args[1] - <INPUT_FILE> The input file, must follow the JSON schema described in print_instructions, or be a snapshot saved with --save.
+	 * @param args[2] - [Optional: <OUTPUT_FILE_NAME>] The output file, defaults to output.csv.
+	 * Any parameter starting with "--" is an option, see the Options class.
+	 */
+	public static void main(String[] command_line)
+	{
+		try
+		{
+			run(command_line);
+		}
+		catch (ParserException e)
+		{
+			// The run could not go on, tell why and how the utility is used if the error was in what was given
+			System.out.println(e.getMessage());
+			if (e.usage)
+			{
+				print_instructions_and_exit_program();
+			}
+			
+			System.exit(0);
+		}
+	}
+	
+	/***
+	 * Runs the Parser on the command line parameters, see main.
+	 */
+	private static void run(String[] command_line)
+	{
+		Options options = Options.parse(command_line);
+		String[] args = options.positional.toArray(new String[0]);
+		
+		// The server only takes the input file, the modes are given with every query
+		if (options.serve)
+		{
+			serve(args, options);
+			return;
+		}
+		
+		// Check that both a mode parameter and a valid input file were provided.
+		if (!(args.length == 2) && !(args.length == 3))
+		{
+			System.out.println("Wrong usage of the Parser utility.");
+			print_instructions_and_exit_program();
+		}
+		
+		// Check that the mode parameter was provided and is valid, set the modes
+		// Several modes can be given as a comma separated list, they are all counted in one pass over the input
+		String[] mode_names = args[0].split(",", -1);
+		int[] modes = new int[mode_names.length];
+		for (int i = 0; i < modes.length; i++)
+		{
+			modes[i] = -1;
+			try
+			{
+				modes[i] = Integer.parseInt(mode_names[i].trim());
+			}
+			catch (Exception e)
+			{
+				System.out.println("Invalide operation mode, please indicate with a single digit as the first parameter which mode to run the Parser utility. Please follow provided instructions.");
+				print_instructions_and_exit_program();
+			}
+			
+			// Check that the mode parameter is one of the supported modes before reading the input
+			if (modes[i] != COAUTHORED_PAPERS_MODE && modes[i] != TILTES_AND_KEYWORDS_MODE && modes[i] != AUTHORS_AND_KEYWORDS_MODE)
+			{
+				System.out.println("Invalide operation mode, please indicate with a single digit as the first parameter which mode to run the Parser utility. Please follow provided instructions.");
+				print_instructions_and_exit_program();
+			}
+			
+			for (int j = 0; j < i; j++)
+			{
+				if (modes[j] == modes[i])
+				{
+					System.out.println("The mode " + modes[i] + " was given more than once. Please review usage instructions.");
+					print_instructions_and_exit_program();
+				}
+			}
+		}
+		
+		// Check if the output file name parameter was provided
+		// With several modes there is an output file per mode, they default to output_<MODE>.csv
+		// Only the output file names of several modes are separated by commas, a single name may hold a comma
+		String output_name = args.length == 3 ? args[2] : "output.csv";
+		String[] output_names = { output_name };
+		if (modes.length > 1)
+		{
+			output_names = output_name.split(",", -1);
+			if (args.length == 2)
+			{
+				output_names = new String[modes.length];
+				for (int i = 0; i < modes.length; i++)
+				{
+					output_names[i] = Options.mode_file_name(output_name, modes[i]);
+				}
+			}
+		}
+		
+		if (output_names.length != modes.length)
+		{
+			System.out.println("There has to be one output file name for every mode. Please review usage instructions.");
+			print_instructions_and_exit_program();
+		}
+		
+		for (String name : output_names)
+		{
+			if (!check_path(name))
+			{
+				System.out.println("The provided output file name bad. Please review usage instructions and provide a proper name.");
+				print_instructions_and_exit_program();
+			}
+		}
+		
+		String file_path = args[1];
+		ParserJob job = new ParserJob(modes, output_names, options);
+		RunReport report = job.report;
+		report.run.put("mode", args[0]);
+		report.run.put("input", file_path);
+		report.run.put("output", output_name);
+		report.run.put("threads", options.threads);
+		
+		job.run(file_path);
+		PaperSource papers = job.papers;
+		RecordErrors errors = job.errors;
+		
+		// Tell how many papers were skipped in lenient mode and write out a sample of them if asked for
+		if (errors != null)
+		{
+			report.run.put("skipped_records", errors.count);
+			if (errors.count > 0)
+			{
+				System.out.println(errors.count + " papers of the input did not follow the schema and were skipped.");
+			}
+			
+			if (options.errors != null)
+			{
+				try
+				{
+					errors.write(new File(options.errors));
+					System.out.println("Error report was created successfuly at " + new File(options.errors).getAbsolutePath());
+				}
+				catch (IOException e)
+				{
+					System.out.println("Error opening writer for the error report. Please make sure the file path has permissions to write.");
+					System.exit(0);
+				}
+			}
+		}
+		
+		// Write out the timings and sizes of the run if a report was asked for
+		if (options.report != null)
+		{
+			if (papers instanceof PaperReader)
+			{
+				report.run.put("reader", "json");
+				report.add_records(RunReport.READ, papers.count());
+				report.add_records(RunReport.PARSE, papers.count());
+				report.add_records(RunReport.CONSTRUCT, papers.count());
+				report.add_records(RunReport.AGGREGATE, papers.count());
+			}
+			else if (papers instanceof MappedPaperReader)
+			{
+				report.run.put("reader", "mmap");
+				report.add_records(RunReport.PARSE, papers.count());
+				report.add_records(RunReport.AGGREGATE, papers.count());
+			}
+			else if (papers instanceof ParallelPaperReader)
+			{
+				report.run.put("reader", "mmap");
+				report.run.put("parse_threads", options.parse_threads);
+				report.add_records(RunReport.PARSE, papers.count());
+				report.add_records(RunReport.AGGREGATE, papers.count());
+			}
+			else
+			{
+				report.run.put("reader", "snapshot");
+			}
+			
+			try
+			{
+				report.write(new File(options.report));
+				System.out.println("Run report was created successfuly at " + new File(options.report).getAbsolutePath());
+			}
+			catch (IOException e)
+			{
+				System.out.println("Error opening writer for the run report. Please make sure the file path has permissions to write.");
+				System.exit(0);
+			}
+		}
+	}
+	
+	/***
+	 * Keeps the papers of the input file in memory and answers queries about them, see ParserServer.
+	 */
+	private static void serve(String[] args, Options options)
+	{
+		if (args.length != 1)
+		{
+			System.out.println("The server only takes an input file, the modes are given with every query. Please review usage instructions.");
+			print_instructions_and_exit_program();
+		}
+		
+		// The graphs of the server are kept in memory to answer the queries that follow
+		if (options.memory > 0)
+		{
+			System.out.println("The graphs of the server are kept in memory, --memory can not be used with --serve. Please review usage instructions.");
+			print_instructions_and_exit_program();
+		}
+		
+		ParserServer server = new ParserServer(options);
+		server.load(args[0]);
+		try
+		{
+			if (options.port > 0)
+			{
+				server.listen(options.port);
+			}
+			else
+			{
+				System.out.println("The server is ready, type help to see the commands.");
+				server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new ParserException("The server was not able to listen on the port " + options.port + ". " + (e.getMessage() == null ? "" : e.getMessage()), false);
+		}
+	}
+	
+	/***
+	 * 
+	 * This method creates a dataset for a weighted graph.
+	 * 
+	 * Nodes are authors and edges between nodes indicate co-authored papers. 
+	 * The weight of the edge is the number of such co-authored papers.
+	 * 
+	 * @param output_file - This is the file to which the resulting dataset will be written in a csv format.
+	 * @param graph - The graph all the Paper(s) (container class for input) were counted into, see Aggregator.
+	 * @param author_table - The symbol table the authors of the papers were interned into.
+	 * @param sink - The sink that writes the output file in its format.
+	 * @param options - The command line options of the mode, used to pick the snapshot and the node list.
+	 * @param report - The report the timings and sizes of the run are added to.
+	 * 
+	 */
+	private static void do_co_authors(File output_file, CooccurrenceGraph graph, SymbolTable author_table, GraphSink sink, Options options, RunReport report)
+	{
+		try
+		{
+			// A graph where both the rows and the columns are authors 
+			// The weight of an edge counts how many papers the two authors co-authored.  
+			
+			// Display number of co-authors for each author if DEBUG is set on
+			// Every co-authorship is displayed once, under the author that was seen first
+			if (DEBUG)
+			{
+				int last_author = -1;
+				EdgeCursor edges = graph.edges();
+				while (edges.next())
+				{
+					int author = edges.row();
+					if (author != last_author)
+					{
+						System.out.println("For the author " + author_table.name(author));
+						last_author = author;
+					}
+					
+					System.out.println("\t" + author_table.name(edges.column()) + " has co-authored " + edges.weight() + " papers.");
+				}
+			}
+			// Write the file out
+			write_graph(graph, sink, output_file, options, report);
+			
+			// The given output file should loads properly in NetDriller.
+			// To do so, under import graph, choose "One Mode", "Undirected", "CSV file" and mark the "The file contains headers" checkbox. 
+			// With --format=edges the file is an edge list of the same undirected graph.
+		}
+		catch (ParserException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			System.out.println("Was not able to write to output file. Please check the file can be created!");
+			e.getMessage();
+			e.printStackTrace();
+		}
+	}
+	
+	/***
+	 * 	 
+	 * This method creates a dataset for a weighted graph.
+	 * 
+	 * Nodes are keywords of papers and edges between nodes are co-occurrences of these keywords in papers.
+	 * The weight of the edge indicates the number of times these two keywords co-occurred.
+	 * 
+	 * @param output_file - This is the file to which the resulting dataset will be written in a csv format.
+	 * @param graph - The graph all the Paper(s) (container class for input) were counted into, see Aggregator.
+	 * @param key_word_table - The symbol table the keywords (or with --title-terms the title terms) of the papers were interned into.
+	 * @param sink - The sink that writes the output file in its format.
+	 * @param options - The command line options of the mode, used to pick the snapshot and the node list.
+	 * @param report - The report the timings and sizes of the run are added to.
+	 * 
+	 */
+	private static void do_titles_and_keywords(File output_file, CooccurrenceGraph graph, SymbolTable key_word_table, GraphSink sink, Options options, RunReport report)
+	{
+		try
+		{
+			// A graph where both the rows and the columns are keywords 
+			// The weight of an edge counts how many papers the two keywords co-occurred in. 
+			
+			// Display number of co-keywords for each keyword if DEBUG is set on
+			// Every co-occurrence is displayed once, under the keyword that was seen first
+			if (DEBUG)
+			{
+				int last_keyword = -1;
+				EdgeCursor edges = graph.edges();
+				while (edges.next())
+				{
+					int keyword = edges.row();
+					if (keyword != last_keyword)
+					{
+						System.out.println("For the keyword " + key_word_table.name(keyword));
+						last_keyword = keyword;
+					}
+					
+					System.out.println("\t" + key_word_table.name(edges.column()) + " has co-keyworded in " + edges.weight() + " papers.");
+				}
+			}
+			
+			// Write the file out
+			write_graph(graph, sink, output_file, options, report);
+			
+			// The given output file should loads properly in NetDriller.
+			// To do so, under import graph, choose "One Mode", "Undirected", "CSV file" and mark the "The file contains headers" checkbox. 
+			// With --format=edges the file is an edge list of the same undirected graph.
+		}
+		catch (ParserException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			System.out.println("Was not able to write to output file. Please check the file can be created!");
+			e.getMessage();
+			e.printStackTrace();
+		}
+	}
+	
+	/***
+	 * This method creates a dataset for a two-mode weighted graph.
+	 * 
+	 * Nodes of the first type are authors. Nodes of the second type are keywords.
+	 * Edges between the two types of nodes are keywords in papers that authors wrote.
+	 * The weight of the edge indicates the number of times the author has used the connected keyword.
+	 * 
+	 * @param output_file - This is the file to which the resulting dataset will be written in a csv format.
+	 * @param graph - The graph all the Paper(s) (container class for input) were counted into, see Aggregator.
+	 * @param author_table - The symbol table the authors of the papers were interned into.
+	 * @param key_word_table - The symbol table the keywords of the papers were interned into.
+	 * @param sink - The sink that writes the output file in its format.
+	 * @param options - The command line options of the mode, used to pick the snapshot and the node list.
+	 * @param report - The report the timings and sizes of the run are added to.
+	 * 
+	 */
+	private static void do_authors_and_keywords(File output_file, CooccurrenceGraph graph, SymbolTable author_table, SymbolTable key_word_table, GraphSink sink, Options options, RunReport report)
+	{
+		try
+		{
+			// A graph where the rows are authors and the columns are keywords 
+			// The weight of an edge counts how many papers of the author used the keyword. 
+			
+			// Display number of keywords for each author if DEBUG is on
+			if (DEBUG)
+			{
+				int last_author = -1;
+				EdgeCursor edges = graph.edges();
+				while (edges.next())
+				{
+					int author = edges.row();
+					if (author != last_author)
+					{
+						System.out.println("For the author named " + author_table.name(author) + " we had the following keywords:");
+						last_author = author;
+					}
+					
+					System.out.println("\tThe keyword '" + key_word_table.name(edges.column()) + "' has appeared in " + edges.weight() + " papers.");
+				}
+			}
+			
+			// Write the file out
+			write_graph(graph, sink, output_file, options, report);
+			
+			// The given output file should loads properly in NetDriller.
+			// To do so, under import graph, choose "Two Mode", "Undirected", "CSV file" and mark the "The file contains headers" checkbox. 
+			// With --format=edges the file is an edge list of the same two-mode graph.
+		}
+
+			
+		catch (ParserException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			System.out.println("Was not able to write to output file. Please check the file can be created!");
+			e.getMessage();
+			e.printStackTrace();
+		}
+	}
+	
+	/***
+	 * 
+	 * This method counts all the papers into a graph.
+	 * 
+	 * @param papers - All the Paper(s) (container class for input) that were provided as input, read one at a time.
+	 * @param mode - The mode that decides which nodes and edges a paper adds, see Aggregator.
+	 * @param graph - The graph the papers are counted into, it may already hold counts.
+	 * @param threads - The number of threads to count with, 1 counts on the calling thread.
+	 * @param report - The report the time spent counting is added to, may be null.
+	 */
+	static void aggregate(Iterable<Paper> papers, int mode, CooccurrenceGraph graph, int threads, RunReport report)
+	{
+		aggregate(papers, new int[] { mode }, new CooccurrenceGraph[] { graph }, threads, report);
+	}
+	
+	/***
+	 * 
+	 * This method counts all the papers into the graphs of several modes in one pass over the papers.
+	 * 
+	 * @param papers - All the Paper(s) (container class for input) that were provided as input, read one at a time.
+	 * @param modes - The modes that decide which nodes and edges a paper adds, see Aggregator.
+	 * @param graphs - The graph of every mode, they may already hold counts.
+	 * @param threads - The number of threads to count with, 1 counts on the calling thread.
+	 * @param report - The report the time spent counting is added to, may be null.
+	 */
+	static void aggregate(Iterable<Paper> papers, int[] modes, CooccurrenceGraph[] graphs, int threads, RunReport report)
+	{
+		aggregate(papers, new GraphSlices(aggregators(modes, graphs), graphs), threads, report);
+	}
+	
+	/***
+	 * 
+	 * This method counts all the papers into the graphs of their slices in one pass over the papers.
+	 * 
+	 * @param papers - All the Paper(s) (container class for input) that were provided as input, read one at a time.
+	 * @param slices - The graphs of every mode in every slice, see GraphSlices.
+	 * @param threads - The number of threads to count with, 1 counts on the calling thread.
+	 * @param report - The report the time spent counting is added to, may be null.
+	 */
+	static void aggregate(Iterable<Paper> papers, GraphSlices slices, int threads, RunReport report)
+	{
+		long start = System.nanoTime();
+		long input_time = report == null ? 0 : report.time(RunReport.READ) + report.time(RunReport.PARSE) + report.time(RunReport.CONSTRUCT);
+		
+		if (threads > 1)
+		{
+			ParallelAggregator.aggregate(papers, slices, threads);
+		}
+		else
+		{
+			for(Paper paper : papers)
+			{
+				slices.count(paper);
+			}
+		}
+		
+		if (report != null)
+		{
+			// The papers are read while they are counted, leave the time spent reading them out of the aggregation
+			report.add_time(RunReport.AGGREGATE, start);
+			report.remove_time(RunReport.AGGREGATE, report.time(RunReport.READ) + report.time(RunReport.PARSE) + report.time(RunReport.CONSTRUCT) - input_time);
+		}
+	}
+		
+	/***
+	 * 
+	 * @param mode - One of the modes of the Parser.
+	 * @param author_table - The symbol table the authors of the papers are interned into.
+	 * @param key_word_table - The symbol table the keywords of the papers are interned into, or the terms of the titles for mode 2.
+	 * @return the aggregator that counts the papers in the mode.
+	 */
+	public static Aggregator aggregator(int mode, SymbolTable author_table, SymbolTable key_word_table)
+	{
+		if (mode == COAUTHORED_PAPERS_MODE)
+		{
+			return new CoauthorAggregator(author_table);
+		}
+		else if (mode == TILTES_AND_KEYWORDS_MODE)
+		{
+			return new KeywordAggregator(key_word_table);
+		}
+		else if (mode == AUTHORS_AND_KEYWORDS_MODE)
+		{
+			return new AuthorKeywordAggregator(author_table, key_word_table);
+		}
+		
+		throw new ParserException("Invalide operation mode, please indicate with a single digit as the first parameter which mode to run the Parser utility. Please follow provided instructions.", true);
+	}
+	
+	/***
+	 * @return the aggregator of every mode over the symbol tables of its graph.
+	 */
+	static Aggregator[] aggregators(int[] modes, CooccurrenceGraph[] graphs)
+	{
+		Aggregator[] aggregators = new Aggregator[modes.length];
+		for (int i = 0; i < modes.length; i++)
+		{
+			aggregators[i] = aggregator(modes[i], graphs[i].rows, graphs[i].columns);
+		}
+		
+		return aggregators;
+	}
+	
+	/***
+	 * 
+	 * This method writes out the graph of a mode, see the do_ methods above.
+	 * 
+	 * @param mode - The mode the graph was counted in.
+	 * @param output_file - This is the file to which the resulting dataset will be written.
+	 * @param graph - The graph all the Paper(s) (container class for input) were counted into.
+	 * @param sink - The sink that writes the output file.
+	 * @param options - The command line options of the mode, used to pick the snapshot and the node list.
+	 * @param report - The report the timings and sizes of the run are added to.
+	 */
+	static void write_mode(int mode, File output_file, CooccurrenceGraph graph, GraphSink sink, Options options, RunReport report)
+	{
+		if (mode == COAUTHORED_PAPERS_MODE)
+		{
+			do_co_authors(output_file, graph, graph.rows, sink, options, report);
+		}
+		else if (mode == TILTES_AND_KEYWORDS_MODE)
+		{
+			do_titles_and_keywords(output_file, graph, graph.rows, sink, options, report);
+		}
+		else if (mode == AUTHORS_AND_KEYWORDS_MODE)
+		{
+			do_authors_and_keywords(output_file, graph, graph.rows, graph.columns, sink, options, report);
+		}
+	}
+	
+	/***
+	 * 
+	 * This method writes out the graph in the output format picked by the options, and a snapshot of it if one was asked for.
+	 * The written graph is pruned first if a minimum weight or a top K was given.
+	 * 
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param output_file - This is the output file that was opened when the utility was validating user parameters input.
+	 * @param options - The command line options with the output format, the optional node list file and snapshot file.
+	 * @param report - The report the time spent writing and the size of the graph are added to, may be null.
+	 */
+	public static void write_graph(CooccurrenceGraph graph, File output_file, Options options, RunReport report)
+	{
+		write_graph(graph, sink(options), output_file, options, report);
+	}
+	
+	/***
+	 * 
+	 * This method writes out the graph with a sink, and a node list and a snapshot of it if they were asked for.
+	 * The written graph is pruned first if a minimum weight or a top K was given.
+	 * 
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param sink - The sink that writes the output file in its format.
+	 * @param output_file - This is the output file that was opened when the utility was validating user parameters input.
+	 * @param options - The command line options with the optional node list file and snapshot file.
+	 * @param report - The report the time spent writing and the size of the graph are added to, may be null.
+	 */
+	public static void write_graph(CooccurrenceGraph graph, GraphSink sink, File output_file, Options options, RunReport report)
+	{
+		write_graph(graph, sink, output_file, options, report, System.out);
+	}
+	
+	/***
+	 * 
+	 * This method writes out the graph with a sink, and a node list and a snapshot of it if they were asked for.
+	 * The written graph is pruned first if a minimum weight or a top K was given.
+	 * 
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param sink - The sink that writes the output file in its format.
+	 * @param output_file - This is the output file that was opened when the utility was validating user parameters input.
+	 * @param options - The command line options with the optional node list file and snapshot file.
+	 * @param report - The report the time spent writing and the size of the graph are added to, may be null.
+	 * @param out - Where the written files are told, the client of a ParserServer or the standard output.
+	 */
+	public static void write_graph(CooccurrenceGraph graph, GraphSink sink, File output_file, Options options, RunReport report, PrintStream out)
+	{
+		long start = System.nanoTime();
+		
+		// Only the written graph is pruned, the snapshot keeps all the counts
+		CooccurrenceGraph output = GraphPruner.prune(graph, options.min_weight, options.top_k);
+		
+		write(sink, output, output_file, out);
+		
+		if (options.node_list != null)
+		{
+			write(new CsvNodeSink(options.gzip), output, new File(options.node_list), out);
+		}
+		
+		// The metrics are of all the counts, like the snapshot
+		if (options.metrics != null)
+		{
+			try
+			{
+				GraphMetrics.compute(graph, options.threads).write(new File(options.metrics));
+				out.println("Metrics summary was created successfuly at " + new File(options.metrics).getAbsolutePath());
+			}
+			catch (IOException e)
+			{
+				throw new ParserException("Error opening writer for the metrics summary. Please make sure the file path has permissions to write.", false);
+			}
+		}
+		
+		if (options.save != null)
+		{
+			try
+			{
+				GraphSnapshot.save(graph, new File(options.save));
+				out.println("Snapshot was created successfuly at " + new File(options.save).getAbsolutePath());
+			}
+			catch (IOException e)
+			{
+				throw new ParserException("Error opening writer for the snapshot. Please make sure the file path has permissions to write.", false);
+			}
+		}
+		
+		if (report != null)
+		{
+			report.add_time(RunReport.WRITE, start);
+			report.nodes += output.row_ids().length + (output.is_one_mode() ? 0 : output.column_ids().length);
+			long edges = output.edge_count();
+			report.edges += edges;
+			report.add_records(RunReport.WRITE, edges);
+			report.bytes_written += output_file.length()
+					+ (options.node_list == null ? 0 : new File(options.node_list).length())
+					+ (options.metrics == null ? 0 : new File(options.metrics).length())
+					+ (options.save == null ? 0 : new File(options.save).length());
+		}
+	}
+
+	/***
+	 * @param options - The command line options with the output format.
+	 * @return the sink of the output format.
+	 */
+	public static GraphSink sink(Options options)
+	{
+		if (Options.EDGES_FORMAT.equals(options.format))
+		{
+			return new CsvEdgeSink(options.gzip);
+		}
+		else if (Options.GRAPHML_FORMAT.equals(options.format))
+		{
+			return new GraphMLSink(options.gzip);
+		}
+		else if (Options.GEXF_FORMAT.equals(options.format))
+		{
+			return new GexfSink(options.gzip);
+		}
+		else if (Options.PAJEK_FORMAT.equals(options.format))
+		{
+			return new PajekSink(options.gzip);
+		}
+		
+		return new CsvMatrixSink(options.gzip);
+	}
+	
+	/***
+	 * 
+	 * This method writes out a graph with a sink.
+	 * 
+	 * @param sink - The sink that writes the file in its format.
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param output_file - This is the output file that was opened when the utility was validating user parameters input.
+	 */
+	public static void write(GraphSink sink, CooccurrenceGraph graph, File output_file)
+	{
+		write(sink, graph, output_file, System.out);
+	}
+	
+	/***
+	 * 
+	 * This method writes out a graph with a sink and tells where it was written.
+	 * 
+	 * @param sink - The sink that writes the file in its format.
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param output_file - This is the output file that was opened when the utility was validating user parameters input.
+	 * @param out - Where the written file is told.
+	 */
+	public static void write(GraphSink sink, CooccurrenceGraph graph, File output_file, PrintStream out)
+	{
+		try
+		{
+			sink.write(graph, output_file);
+			out.println(sink.description() + " was created successfuly at " + output_file.getAbsolutePath());
+		}
+		catch (IOException e)
+		{
+			throw new ParserException("Error opening writer for the file. Please make sure the file path has permissions to write.", false);
+		}
+	}
+	
+	/***
+	 * 
+	 * This method writes out a CSV file, see CsvMatrixSink.
+	 * 
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param output_file - This is the output file that was opened when the utility was validating user parameters input.
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public static void write_out(CooccurrenceGraph graph, File output_file, boolean gzip)
+	{
+		write(new CsvMatrixSink(gzip), graph, output_file);
+	}
+	
+	/***
+	 * 
+	 * This method writes out a CSV edge list, see CsvEdgeSink.
+	 * 
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param output_file - This is the output file that was opened when the utility was validating user parameters input.
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public static void write_out_edges(CooccurrenceGraph graph, File output_file, boolean gzip)
+	{
+		write(new CsvEdgeSink(gzip), graph, output_file);
+	}
+	
+	/***
+	 * 
+	 * This method writes out a CSV list of all the nodes of the graph with their type, see CsvNodeSink.
+	 * 
+	 * @param graph - this is the graph with the relationships from one of the three modes
+	 * @param output_file - This is the file the node list is written to.
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public static void write_out_nodes(CooccurrenceGraph graph, File output_file, boolean gzip)
+	{
+		write(new CsvNodeSink(gzip), graph, output_file);
+	}
+	
+	/***
+	 * 
+	 * @param file_path - the full path to the input file
+	 * @return a buffered UTF-8 reader over the content of the input file
+	 */
+	public static Reader open_input_file(String file_path)
+	{
+		Reader reader = null;
+		try 
+		{
+			File f = new File(file_path);
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8), 1 << 16);
+			
+		} 
+		catch (FileNotFoundException e) 
+		{
+			// File not found
+			throw new ParserException("The indicated file was not found. Please make sure the file " + file_path + " exists at the specified path.", true);
+		}
+		catch (Exception e) 
+		{
+			// File not found
+			throw new ParserException("There was an error raeding and/or closing the file. Make sure the file " + file_path + " exists and that the proper permissions are given to it.", true);
+		}
+		
+		return reader;
+	}
+	
+	/***
+	 * This method prints out the instructions of the program
+	 */
+	public static void print_instructions_and_exit_program()
+	{
+		System.out.println("Please user the proper command line parameters:");
+		System.out.println("java -jar Parser.jar <MODE_PARAMETER> <INPUT_FILE_NAME> [Optional: <OUTPUT_FILE_NAME> - defaults to output.csv]");
+		System.out.println("Several modes can be run in one pass over the input with a comma separated list of modes and of output files, the output files then default to output_<MODE>.csv");
+		System.out.println("Mode parameters:");
+		System.out.println("1 - will produce a dataset of authors with relationship based on number of coauthored papers from the input file");
+		System.out.println("2 - will produce a dataset of keywords from titles of papers where the relationship between keywords is based on their co-occurrence in same title.");
+		System.out.println("3 - will produce a dataset for weighted two-mode network between authors and keywords");
+		System.out.println("Options:");
+		System.out.println("--format=matrix|edges|graphml|gexf|pajek - write a full adjacency matrix (default), a source,target,weight edge list of the non-zero edges, or a GraphML, GEXF or Pajek .net file of the non-zero edges for Gephi, yEd, NetworkX or Pajek. GraphML and GEXF nodes have their type and the number of papers they were counted in");
+		System.out.println("--nodes=<NODE_FILE_NAME> - also write a CSV list of all the nodes and their type");
+		System.out.println("--threads=<N> - count the papers on N threads, defaults to 1");
+		System.out.println("--min-weight=<N> - only write edges with a weight of at least N");
+		System.out.println("--top-k=<K> - only write the K heaviest edges of every node, an edge is kept if it is among the K heaviest of either of its nodes. Nodes left without edges are not written");
+		System.out.println("--memory=<MB> - keep the counts of every mode within about MB megabytes of memory, shared by all the slices of the mode, larger counts are spilled to sorted temporary files and merged when they are written");
+		System.out.println("--spill-dir=<DIRECTORY> - the directory of the temporary files of --memory, defaults to the temporary directory of the system");
+		System.out.println("--slice-years=<N> - build a dataset for every window of N years, windows start at multiples of N. Every slice is written to the output file name with _<FIRST_YEAR>-<LAST_YEAR> added, or _<YEAR> for N=1");
+		System.out.println("--slice-venue - build a dataset for every venue, alone or within the year windows of --slice-years. Papers without a year or venue go into the unknown slice");
+		System.out.println("--metrics=<METRICS_FILE_NAME> - also write the number of nodes, edges and connected components of the graph, and the nodes with the highest degree and weighted degree with their top collaborator, as JSON if the name ends with .json and CSV otherwise");
+		System.out.println("--years=<FIRST_YEAR>-<LAST_YEAR> - only count the papers of these years, or of a single year with --years=<YEAR>");
+		System.out.println("--venue=<VENUE> - only count the papers of this venue, the case of the venue does not matter");
+		System.out.println("--report=<REPORT_FILE_NAME> - write the time, throughput and memory of every phase of the run, as JSON if the name ends with .json and CSV otherwise");
+		System.out.println("--lenient - skip the papers that do not follow the schema instead of stopping, and count them. With --mmap or --parse-threads reading also picks up again at the next paper after JSON that is not proper");
+		System.out.println("--errors=<ERROR_FILE_NAME> - like --lenient, and write the number of skipped papers and a sample of them with the reason they were skipped, as JSON if the name ends with .json and CSV otherwise");
+		System.out.println("--title-terms - build the dataset of mode 2 from the terms of the titles instead of the keywords. Titles are split into words, stop words are dropped and the words are stemmed");
+		System.out.println("--aliases=<ALIAS_FILE_NAME> - merge the spellings of author names listed in an alias file, every line holds a canonical name followed by its aliases, separated by tabs");
+		System.out.println("--initials - reduce the author names that are not in the alias file to their last name and initials, so \"Rokne, Jon\" and \"J. Rokne\" both become \"ROKNE, J.\"");
+		System.out.println("--mmap - memory map the input file and read the papers straight from its bytes, for input files larger than memory");
+		System.out.println("--parse-threads=<N> - memory map the input file and decode the papers on N threads, the papers are still counted in the order of the file");
+		System.out.println("--gzip - compress the output files with gzip, this is also done for any output file name ending with .gz");
+		System.out.println("--save=<SNAPSHOT_FILE_NAME> - also save the counts of this run, so a later run can add new papers to them");
+		System.out.println("--load=<SNAPSHOT_FILE_NAME> - start from the counts of an earlier run saved in the same mode, the input file then only needs the new papers");
+		System.out.println("--serve - keep the papers of the input file in memory and answer queries read from the standard input, the usage is then java -jar Parser.jar <INPUT_FILE_NAME> --serve. Type help to see the queries");
+		System.out.println("--port=<PORT> - like --serve, and answer the queries of clients of a socket on this port of the local machine instead");
+		System.out.println("--cache=<N> - the number of graphs the server keeps to answer queries that were asked before, defaults to 16");
+		System.out.println("Input file has to be a snapshot saved with --save, or be a in JSON format that adheres to the following schema:");
+		System.out.println("[ { \"authors\": [\"name_1\", \"name_2\"], \"title\": \"title_of_article\", \"venue\": \"name_of_venue\", \"year\": 1988, \"keywords\": [\"keyword1\", \"keyword2\"] } , <ADDITIONAL ARTICLES FOLLOWING THE SAME JSON SCHEMA> ]");
+		System.out.println("Full usage example:");
+		System.out.println("java -jar Parser.jar 1 input.json");
+		System.out.println("java -jar Parser.jar 1 input.json spacial_output_name.csv");
+		System.out.println("java -jar Parser.jar 1 input.json edges.csv --format=edges --nodes=nodes.csv");
+		System.out.println("java -jar Parser.jar 3 input.json authors_keywords.gexf --format=gexf");
+		System.out.println("java -jar Parser.jar 1 new_papers.json output.csv --load=last_week.ndg --save=this_week.ndg");
+		System.out.println("java -jar Parser.jar 1 this_week.ndg edges.csv --format=edges");
+		System.out.println("java -jar Parser.jar 1 input.json edges.csv --format=edges --min-weight=2 --top-k=20");
+		System.out.println("java -jar Parser.jar 2 input.json title_terms.csv --title-terms");
+		System.out.println("java -jar Parser.jar 1 input.json output.csv --aliases=aliases.txt --initials");
+		System.out.println("java -jar Parser.jar 1 full_history.json edges.csv --format=edges --memory=2048");
+		System.out.println("java -jar Parser.jar 1 full_history.json edges.csv --format=edges --mmap --errors=skipped.json");
+		System.out.println("java -jar Parser.jar 1 full_history.json edges.csv --format=edges --parse-threads=4 --threads=4");
+		System.out.println("java -jar Parser.jar 1 input.json coauthors.csv --slice-years=5");
+		System.out.println("java -jar Parser.jar 1,2,3 input.json authors.csv,keywords.csv,authors_keywords.csv");
+		System.out.println("java -jar Parser.jar 1 input.json coauthors.csv --years=2010-2016 --venue=VLDB");
+		System.out.println("java -jar Parser.jar 1 input.json edges.csv --format=edges --metrics=metrics.json --threads=4");
+		System.out.println("java -jar Parser.jar input.json --serve --threads=4");
+		System.exit(0);
+	}
+	
+    /**
+     * * Checks if a string is a valid path.
+     * Null safe.
+     * Based on this stack overflow question: 
+     * http://stackoverflow.com/questions/468789/is-there-a-way-in-java-to-determine-if-a-path-is-valid-without-attempting-to-cre
+     *  
+     * Calling examples:
+     *    path("c:/test");      //returns true
+     *    path("c:/te:t");      //returns false
+     *    path("c:/te?t");      //returns false
+     *    path("c/te*t");       //returns false
+     *    path("good.txt");     //returns true
+     *    path("not|good.txt"); //returns false
+     *    path("not:good.txt"); //returns false
+     */
+    public static boolean check_path(String path) {
+
+        try 
+        {
+            Paths.get(path);
+
+        }
+        catch (InvalidPathException |  NullPointerException ex) 
+        {
+            return false;
+        }
+
+        return true;
+    }
+}
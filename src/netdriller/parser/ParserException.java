@@ -0,0 +1,28 @@
+package netdriller.parser;
+
+public class ParserException extends RuntimeException
+{
+	/***
+	 *
+	 *	This is the error of the Parser when it can not go on with a run, like an input file that is missing or
+	 *	not proper JSON, or an output file that can not be written.
+	 *
+	 *	The message is the one the command line prints. The classes of the Parser throw it instead of ending the
+	 *	program so they can be used from other programs, the main method of the Parser catches it, prints the message,
+	 *	and then the usage instructions if the error was in what the user gave.
+	 */
+
+	private static final long serialVersionUID = 1L;
+
+	public boolean usage; // True if the usage instructions are printed after the message
+
+	/***
+	 * @param message - The message that is printed, it may have several lines.
+	 * @param usage - True if the error was in the parameters or the input given by the user.
+	 */
+	public ParserException(String message, boolean usage)
+	{
+		super(message);
+		this.usage = usage;
+	}
+}
@@ -0,0 +1,353 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+
+public class ParserJob
+{
+	/***
+	 *
+	 *	This class is a run of the Parser that can be started from another program, the command line runs one as well.
+	 *
+	 *	A job counts the papers of an input file into the graphs of its modes and writes them out. The steps can also
+	 *	be taken one at a time: open a PaperSource, aggregate it, then write the graphs or use the counted graphs of
+	 *	the slices. Other sources, aggregators and sinks can be given in place of the ones the options pick.
+	 *	A job that can not go on throws a ParserException instead of ending the program.
+	 *
+	 *	The symbol tables the names are interned into can be shared by the jobs of a program, see the constructor that
+	 *	takes an earlier job. A name then keeps its ID and is stored once, and the nodes of a graph are listed in the
+	 *	order their names were first seen by any of the jobs. The tables are not thread safe, so jobs that share them
+	 *	have to run one after the other.
+	 */
+
+	public int[] modes;
+	public String[] output_names; // The output file of every mode, slices add their name to it
+	public Options options;
+	public Options[] mode_options; // The options of every mode, see Options.for_mode
+
+	public SymbolTable author_table;
+	public SymbolTable key_word_table;
+	public SymbolTable term_table;
+	public NameNormalizer author_names; // May be null, the names are then only upper cased
+
+	public Aggregator[] aggregators; // The aggregator of every mode
+	public GraphSink sink; // The sink of the output files, null writes them in the format of the options
+	public PaperSource papers; // The papers of the input, null if it was a snapshot
+	public GraphSlices slices; // The graphs of every mode in every slice, once the papers are counted
+	public RecordErrors errors; // The papers that were skipped, null unless the options are lenient
+	public RunReport report = new RunReport();
+
+	private CooccurrenceGraph[] templates;
+	private String snapshot; // The snapshot given in place of the input file, the options of the caller are not changed
+
+	/***
+	 * @param modes - The modes to run, see Parser.COAUTHORED_PAPERS_MODE and the modes after it.
+	 * @param output_names - The output file of every mode.
+	 * @param options - The options of the run, they are not changed.
+	 */
+	public ParserJob(int[] modes, String[] output_names, Options options)
+	{
+		this(modes, output_names, options, new SymbolTable("author"), new SymbolTable("keyword"), new SymbolTable("term"), open_author_names(options));
+	}
+
+	/***
+	 * Makes a job that interns the names into the same symbol tables as an earlier job, and normalizes the author names like it.
+	 *
+	 * @param modes - The modes to run, see Parser.COAUTHORED_PAPERS_MODE and the modes after it.
+	 * @param output_names - The output file of every mode.
+	 * @param options - The options of the run, the alias file and the initials setting of the earlier job are used.
+	 * @param previous - The earlier job, it must be done before this job starts.
+	 */
+	public ParserJob(int[] modes, String[] output_names, Options options, ParserJob previous)
+	{
+		this(modes, output_names, options, previous.author_table, previous.key_word_table, previous.term_table, previous.author_names);
+	}
+
+	private ParserJob(int[] modes, String[] output_names, Options options, SymbolTable author_table, SymbolTable key_word_table, SymbolTable term_table, NameNormalizer author_names)
+	{
+		this.modes = modes;
+		this.output_names = output_names;
+		this.options = options;
+		this.author_table = author_table;
+		this.key_word_table = key_word_table;
+		this.term_table = term_table;
+		this.author_names = author_names;
+		this.errors = options.lenient ? new RecordErrors() : null;
+
+		mode_options = new Options[modes.length];
+		aggregators = new Aggregator[modes.length];
+		for (int i = 0; i < modes.length; i++)
+		{
+			mode_options[i] = modes.length > 1 ? options.for_mode(modes[i]) : options;
+
+			// With --title-terms the nodes of mode 2 are the terms of the titles
+			SymbolTable key_words = options.title_terms && modes[i] == Parser.TILTES_AND_KEYWORDS_MODE ? term_table : key_word_table;
+			aggregators[i] = Parser.aggregator(modes[i], author_table, key_words);
+		}
+	}
+
+	/***
+	 * Counts the papers of an input file, or the counts of a snapshot, and writes out the graphs of all the modes.
+	 *
+	 * @param file_path - The input file, must follow the JSON schema described in Parser.print_instructions_and_exit_program, or be a snapshot saved with --save.
+	 */
+	public void run(String file_path)
+	{
+		Iterable<Paper> input = new ArrayList<Paper>();
+		if (GraphSnapshot.is_snapshot(file_path))
+		{
+			// A snapshot can be given in place of the input file, the saved graph is then written out without reading any papers
+			if (options.load != null)
+			{
+				throw new ParserException("The input file is a snapshot, it can not be used together with --load. Please review usage instructions.", true);
+			}
+
+			// A snapshot holds the graph of a single mode
+			if (modes.length > 1)
+			{
+				throw new ParserException("The input file is a snapshot of a single mode, it can not be used to run several modes. Please review usage instructions.", true);
+			}
+
+			report.bytes_read += new File(file_path).length();
+			snapshot = file_path;
+		}
+		else
+		{
+			papers = open(file_path);
+			input = papers;
+		}
+
+		// A snapshot holds the counts of all the papers, they can not be sliced any more
+		if (options.is_sliced() && (options.load != null || snapshot != null))
+		{
+			throw new ParserException("A snapshot can not be loaded when the papers are sliced. Please review usage instructions.", true);
+		}
+
+		aggregate(input);
+		write();
+	}
+
+	/***
+	 * Opens the reader of an input file the options ask for, the papers are read while they are counted.
+	 *
+	 * @param file_path - The input file, must follow the JSON schema described in Parser.print_instructions_and_exit_program.
+	 * @return the papers of the input file, this is also kept as the papers of the job.
+	 */
+	public PaperSource open(String file_path)
+	{
+		report.bytes_read += new File(file_path).length();
+		try
+		{
+			if (options.parse_threads > 1)
+			{
+				// The input file is memory mapped, split into chunks and the chunks are decoded on several threads
+				ParallelPaperReader reader = new ParallelPaperReader(file_path, author_table, key_word_table, options.title_terms ? term_table : null, options.parse_threads);
+				reader.report = report;
+				reader.author_names = author_names;
+				reader.errors = errors;
+				papers = reader;
+			}
+			else if (options.mmap)
+			{
+				// The input file is memory mapped and the papers are tokenized straight from its bytes
+				MappedPaperReader reader = new MappedPaperReader(file_path, author_table, key_word_table);
+				reader.report = report;
+				if (options.title_terms)
+				{
+					reader.title_terms = new TitleTokenizer(term_table);
+				}
+
+				reader.normalize_authors(author_names);
+				reader.errors = errors;
+				papers = reader;
+			}
+			else
+			{
+				// The papers are parsed one at a time while the dataset is being built, so the whole file is never held in memory.
+				PaperReader reader = new PaperReader(file_path, report.timed(Parser.open_input_file(file_path)), author_table, key_word_table);
+				reader.report = report;
+				if (options.title_terms)
+				{
+					reader.title_terms = new TitleTokenizer(term_table);
+				}
+
+				reader.author_names = author_names;
+				reader.errors = errors;
+				papers = reader;
+			}
+
+			if (papers.is_empty())
+			{
+				throw new ParserException("The input file was empty. Please follow provided instructions.", true);
+			}
+		}
+		catch (FileNotFoundException e)
+		{
+			throw new ParserException("The indicated file was not found. Please make sure the file " + file_path + " exists at the specified path.", true);
+		}
+		catch (IOException e)
+		{
+			throw new ParserException("There was an error raeding and/or closing the file. Make sure the file " + file_path + " exists and that the proper permissions are given to it.", true);
+		}
+
+		return papers;
+	}
+
+	/***
+	 * Counts papers into the graphs of all the modes, in one pass over the papers.
+	 * The counted graphs are kept in the slices of the job.
+	 *
+	 * @param papers - The papers to count, read one at a time.
+	 */
+	public void aggregate(Iterable<Paper> papers)
+	{
+		// Every paper is counted into the graphs of all the modes while the input is read once
+		templates = new CooccurrenceGraph[modes.length];
+		for (int i = 0; i < modes.length; i++)
+		{
+			if (modes[i] == Parser.COAUTHORED_PAPERS_MODE)
+			{
+				System.out.println("Creating a dataset based on co-authored papers: " + output_names[i]);
+			}
+			else if (modes[i] == Parser.TILTES_AND_KEYWORDS_MODE)
+			{
+				System.out.println("Creating a dataset based on titles and keywords: " + output_names[i]);
+			}
+			else if (modes[i] == Parser.AUTHORS_AND_KEYWORDS_MODE)
+			{
+				System.out.println("Creating a dataset based on authors and titles: " + output_names[i]);
+			}
+
+			templates[i] = start_graph(aggregators[i], mode_options[i], snapshot != null ? snapshot : mode_options[i].load);
+		}
+
+		// When the papers are sliced, the graphs above are the empty templates of the graphs of every slice
+		slices = new GraphSlices(aggregators, templates);
+		if (options.is_sliced())
+		{
+			slices = new GraphSlices(aggregators, templates, new Slicer(options.slice_years, options.slice_venue));
+		}
+
+		// Only the papers of the years and the venue that were asked for are counted
+		if (options.is_filtered())
+		{
+			papers = new PaperFilter(options).filter(papers);
+		}
+
+		Parser.aggregate(papers, slices, options.threads, report);
+		if (options.is_sliced())
+		{
+			System.out.println("The papers were sliced into " + slices.slices.size() + " slices.");
+			report.run.put("slices", slices.slices.size());
+		}
+	}
+
+	/***
+	 * Writes out the counted graphs of every mode in every slice, and lets go of their temporary files.
+	 */
+	public void write()
+	{
+		for (Map.Entry<String, CooccurrenceGraph[]> slice : slices.slices.entrySet())
+		{
+			String slice_name = slice.getKey();
+			CooccurrenceGraph[] slice_graphs = slice.getValue();
+			for (int i = 0; i < modes.length; i++)
+			{
+				// Every slice is written to its own files, the slice is added to their names
+				File output_file = new File(output_names[i]);
+				Options slice_options = mode_options[i];
+				if (!slice_name.equals(GraphSlices.ALL))
+				{
+					output_file = new File(Options.suffixed_file_name(output_names[i], slice_name));
+					slice_options = mode_options[i].for_slice(slice_name);
+				}
+
+				Parser.write_mode(modes[i], output_file, slice_graphs[i], sink == null ? Parser.sink(slice_options) : sink, slice_options, report);
+
+				if (slice_graphs[i].spill != null)
+				{
+					slice_graphs[i].spill.delete();
+				}
+			}
+		}
+
+		for (CooccurrenceGraph graph : templates)
+		{
+			if (graph.spill != null)
+			{
+				graph.spill.delete();
+			}
+		}
+	}
+
+	/***
+	 *
+	 * This method creates the graph the papers are counted into.
+	 * If a snapshot of an earlier run was given with --load, the graph starts with the counts of that run
+	 * and the input file only has to hold the papers that were added since.
+	 * With --memory the graph spills its counts to disk when they grow past the budget.
+	 *
+	 * @param aggregator - The aggregator of the mode, it makes the empty graph.
+	 * @param options - The command line options with the memory budget.
+	 * @param load - The snapshot to load, null to start from an empty graph.
+	 * @return the new graph.
+	 */
+	private static CooccurrenceGraph start_graph(Aggregator aggregator, Options options, String load)
+	{
+		CooccurrenceGraph graph = aggregator.new_graph();
+		if (options.memory > 0)
+		{
+			// Counts past the memory budget are spilled to disk, every graph has its own temporary files
+			File directory = options.spill_directory == null ? null : new File(options.spill_directory);
+			graph.spill_to(new SpillStore(directory, graph.is_one_mode()), SpillStore.max_pairs(options.memory));
+		}
+
+		if (load != null)
+		{
+			try
+			{
+				GraphSnapshot.load(new File(load), graph);
+				System.out.println("The snapshot " + load + " was successfuly loaded!");
+			}
+			catch (IOException e)
+			{
+				throw new ParserException("Was not able to load the snapshot " + load + ". " + (e.getMessage() == null ? "" : e.getMessage()), true);
+			}
+		}
+
+		return graph;
+	}
+
+	/***
+	 *
+	 * @param options - The command line options with the alias file and the initials setting.
+	 * @return the normalizer of the author names, or null if the names are only upper cased.
+	 */
+	private static NameNormalizer open_author_names(Options options)
+	{
+		if (options.aliases == null && !options.initials)
+		{
+			return null;
+		}
+
+		AliasNormalizer normalizer = new AliasNormalizer(options.initials);
+		if (options.aliases != null)
+		{
+			try
+			{
+				int count = normalizer.load(new File(options.aliases));
+				System.out.println("The alias file " + options.aliases + " was successfuly loaded with " + count + " names!");
+			}
+			catch (IOException e)
+			{
+				throw new ParserException("Was not able to read the alias file. Make sure the file " + options.aliases + " exists and that the proper permissions are given to it.", true);
+			}
+		}
+
+		// Most names are repeated, only normalize every name once while it stays in the cache
+		return new CachedNormalizer(normalizer, CachedNormalizer.DEFAULT_CAPACITY);
+	}
+}
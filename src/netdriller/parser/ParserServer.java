@@ -0,0 +1,405 @@
+package netdriller.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ParserServer
+{
+	/***
+	 *
+	 *	This class keeps the papers of an input file in memory and answers queries about their graphs, see --serve.
+	 *
+	 *	The input file is read and its names are interned once, then every query only counts the papers it asks for.
+	 *	The counted graph of every mode and filter is kept in a bounded LRU cache, so a query that was asked before
+	 *	is answered without counting again. The least recently used graph is dropped when the cache is full.
+	 *	The first neighbours query of a cached graph builds an AdjacencyIndex of it, which is kept with the graph,
+	 *	so the neighbours of a node are looked up instead of going through all the edges.
+	 *	The graphs of the server are always kept in memory, they do not spill to disk like with --memory.
+	 *
+	 *	Queries are read one per line, from the standard input or from the clients of a local socket with --port.
+	 *	Clients are served one at a time. Every answer ends with an empty line, errors start with "Error: ".
+	 */
+
+	public static int DEFAULT_CACHE_SIZE = 16;
+
+	// The options the queries take, as listed by help
+	private static String[] GRAPH_OPTIONS = { "--format", "--nodes", "--min-weight", "--top-k", "--gzip", "--save", "--metrics", "--years", "--venue" };
+	private static String[] NEIGHBOURS_OPTIONS = { "--min-weight", "--top-k", "--years", "--venue" };
+
+	public ParserJob job; // Holds the options, the symbol tables and the normalizer of the names of the papers
+	public ArrayList<Paper> papers = new ArrayList<Paper>();
+	public int capacity; // The number of graphs the cache holds
+	public int hits = 0;
+	public int misses = 0;
+
+	private LinkedHashMap<String, Cached> graphs;
+
+	/***
+	 * @param options - The options the papers are read with, see ParserJob.
+	 */
+	public ParserServer(Options options)
+	{
+		this.job = new ParserJob(new int[0], new String[0], options);
+		this.capacity = options.cache;
+		this.graphs = new LinkedHashMap<String, Cached>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	/***
+	 * Reads all the papers of an input file into memory.
+	 *
+	 * @param file_path - The input file, must follow the JSON schema described in Parser.print_instructions_and_exit_program.
+	 */
+	public void load(String file_path)
+	{
+		if (GraphSnapshot.is_snapshot(file_path))
+		{
+			throw new ParserException("The input file of the server has to hold the papers, a snapshot can not be served. Please review usage instructions.", true);
+		}
+
+		for (Paper paper : job.open(file_path))
+		{
+			papers.add(paper);
+		}
+		papers.trimToSize();
+
+		if (job.errors != null && job.errors.count > 0)
+		{
+			System.out.println(job.errors.count + " papers of the input did not follow the schema and were skipped.");
+		}
+
+		System.out.println("The server holds " + papers.size() + " papers.");
+	}
+
+	/***
+	 * @param mode - One of the modes of the Parser.
+	 * @param filter - The filter of the papers that are counted.
+	 * @return the graph of the papers of the filter in the mode, from the cache if it was counted before.
+	 */
+	public CooccurrenceGraph graph(int mode, PaperFilter filter)
+	{
+		return cached(mode, filter).graph;
+	}
+
+	private Cached cached(int mode, PaperFilter filter)
+	{
+		String key = mode + "|" + filter.key();
+		Cached cached = graphs.get(key);
+		if (cached != null)
+		{
+			hits++;
+			return cached;
+		}
+
+		misses++;
+		// With --title-terms the nodes of mode 2 are the terms of the titles
+		SymbolTable key_words = job.options.title_terms && mode == Parser.TILTES_AND_KEYWORDS_MODE ? job.term_table : job.key_word_table;
+		Aggregator aggregator = Parser.aggregator(mode, job.author_table, key_words);
+		CooccurrenceGraph graph = aggregator.new_graph();
+		Parser.aggregate(filter.filter(papers), new GraphSlices(new Aggregator[] { aggregator }, new CooccurrenceGraph[] { graph }), job.options.threads, null);
+		cached = new Cached(graph);
+		graphs.put(key, cached);
+		return cached;
+	}
+
+	/***
+	 * Answers the queries of the clients of a local socket, one client at a time, until a client asks for a shutdown.
+	 *
+	 * @param port - The port of the socket, it only takes connections from this machine.
+	 */
+	public void listen(int port) throws IOException
+	{
+		ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		System.out.println("The server is listening on " + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + ", type help to see the commands.");
+		try
+		{
+			boolean shutdown = false;
+			while (!shutdown)
+			{
+				Socket client = server.accept();
+				try
+				{
+					BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+					PrintStream out = new PrintStream(client.getOutputStream(), false, "UTF-8");
+					shutdown = serve(in, out);
+				}
+				catch (IOException e)
+				{
+					// The client went away, wait for the next one
+				}
+				finally
+				{
+					client.close();
+				}
+			}
+		}
+		finally
+		{
+			server.close();
+		}
+	}
+
+	/***
+	 * Answers the queries read from a reader until it ends or a quit or shutdown command is read.
+	 *
+	 * @param in - The queries, one per line.
+	 * @param out - The answers, every answer ends with an empty line.
+	 * @return true if the server was asked to shut down.
+	 */
+	public boolean serve(BufferedReader in, PrintStream out) throws IOException
+	{
+		String line;
+		while ((line = in.readLine()) != null)
+		{
+			String[] words = line.trim().split("\\s+");
+			String command = words[0].toLowerCase();
+			if (command.isEmpty())
+			{
+				continue;
+			}
+
+			if (command.equals("quit") || command.equals("shutdown"))
+			{
+				out.flush();
+				return command.equals("shutdown");
+			}
+
+			try
+			{
+				execute(command, Arrays.copyOfRange(words, 1, words.length), out);
+			}
+			catch (ParserException e)
+			{
+				out.println("Error: " + e.getMessage());
+			}
+
+			out.println();
+			out.flush();
+		}
+
+		return false;
+	}
+
+	private void execute(String command, String[] args, PrintStream out)
+	{
+		long start = System.nanoTime();
+		if (command.equals("graph"))
+		{
+			// graph <MODE> <OUTPUT_FILE_NAME> [OPTIONS]
+			Options query = parse(command, args, GRAPH_OPTIONS);
+			if (query.positional.size() != 2 || !Parser.check_path(query.positional.get(1)))
+			{
+				throw new ParserException("Use graph <MODE> <OUTPUT_FILE_NAME> followed by the options of the output and the filters.", false);
+			}
+
+			CooccurrenceGraph graph = graph(mode(query.positional.get(0)), new PaperFilter(query));
+			File output_file = new File(query.positional.get(1));
+			RunReport report = new RunReport();
+			Parser.write_graph(graph, Parser.sink(query), output_file, query, report, out);
+			out.println(report.nodes + " nodes and " + report.edges + " edges were written to " + output_file.getAbsolutePath() + " in " + millis(start) + " ms.");
+		}
+		else if (command.equals("neighbours") || command.equals("neighbors"))
+		{
+			// neighbours <MODE> <NAME> [OPTIONS]
+			Options query = parse(command, args, NEIGHBOURS_OPTIONS);
+			if (query.positional.size() < 2)
+			{
+				throw new ParserException("Use neighbours <MODE> <NAME> followed by --min-weight, --top-k and the filters.", false);
+			}
+
+			Cached cached = cached(mode(query.positional.get(0)), new PaperFilter(query));
+			String name = join(query.positional.subList(1, query.positional.size()));
+			for (Map.Entry<String, Integer> neighbour : neighbours(cached.index(), name, query.min_weight, query.top_k))
+			{
+				out.println(new String(CsvMatrixSink.escape(neighbour.getKey()), StandardCharsets.UTF_8) + "," + neighbour.getValue());
+			}
+		}
+		else if (command.equals("stats"))
+		{
+			out.println(papers.size() + " papers, " + job.author_table.size() + " authors, " + job.key_word_table.size() + " keywords and " + job.term_table.size() + " title terms.");
+			out.println(graphs.size() + " of " + capacity + " graphs are cached, " + hits + " queries were answered from the cache and " + misses + " were counted.");
+		}
+		else if (command.equals("help"))
+		{
+			out.println("graph <MODE> <OUTPUT_FILE_NAME> [OPTIONS] - write out the graph of a mode, with the options --format, --nodes, --min-weight, --top-k, --gzip, --save and --metrics");
+			out.println("neighbours <MODE> <NAME> [OPTIONS] - list the neighbours of an author or keyword and the weights of their edges, heaviest first, with the options --min-weight and --top-k");
+			out.println("Both take --years=<FIRST>-<LAST> and --venue=<VENUE> to only count the papers of these years and venue");
+			out.println("stats - the number of papers, names and cached graphs");
+			out.println("quit - end the session, shutdown - also stop a server that listens on a port");
+		}
+		else
+		{
+			throw new ParserException("The command " + command + " is not known, type help to see the commands.", false);
+		}
+	}
+
+	/***
+	 * Checks that a query only has the options of its command, then parses them.
+	 */
+	private static Options parse(String command, String[] args, String[] allowed)
+	{
+		for (String arg : args)
+		{
+			if (arg.startsWith("--") && !Arrays.asList(allowed).contains(arg.split("=", 2)[0]))
+			{
+				throw new ParserException("The option " + arg + " can not be used with " + command + ", type help to see the options of the commands.", false);
+			}
+		}
+
+		return Options.parse(args);
+	}
+
+	/***
+	 * @return the nodes that share an edge with the node of the name, heaviest edge first.
+	 */
+	private ArrayList<Map.Entry<String, Integer>> neighbours(AdjacencyIndex index, String name, int min_weight, int top_k)
+	{
+		// The name may be a row or, in a two-mode graph, a column
+		CooccurrenceGraph graph = index.graph;
+		int row = lookup(graph.rows, name);
+		int column = graph.is_one_mode() ? -1 : lookup(graph.columns, name);
+		if (row < 0 && column < 0)
+		{
+			throw new ParserException("The name " + name + " is not in the input file.", false);
+		}
+
+		ArrayList<Map.Entry<String, Integer>> neighbours = new ArrayList<Map.Entry<String, Integer>>();
+		if (row >= 0)
+		{
+			for (int i = index.start(row); i < index.end(row); i++)
+			{
+				if (index.weight(i) >= min_weight)
+				{
+					neighbours.add(new AbstractMap.SimpleEntry<String, Integer>(index.name(index.neighbour(i)), index.weight(i)));
+				}
+			}
+		}
+
+		if (column >= 0)
+		{
+			int node = index.column_node(column);
+			for (int i = index.start(node); i < index.end(node); i++)
+			{
+				// The edge between the row and the column of the name is already listed
+				if (index.weight(i) >= min_weight && index.neighbour(i) != row)
+				{
+					neighbours.add(new AbstractMap.SimpleEntry<String, Integer>(index.name(index.neighbour(i)), index.weight(i)));
+				}
+			}
+		}
+
+		Collections.sort(neighbours, new Comparator<Map.Entry<String, Integer>>()
+		{
+			@Override
+			public int compare(Map.Entry<String, Integer> a, Map.Entry<String, Integer> b)
+			{
+				int by_weight = b.getValue().compareTo(a.getValue());
+				return by_weight != 0 ? by_weight : a.getKey().compareTo(b.getKey());
+			}
+		});
+
+		if (top_k > 0 && neighbours.size() > top_k)
+		{
+			return new ArrayList<Map.Entry<String, Integer>>(neighbours.subList(0, top_k));
+		}
+
+		return neighbours;
+	}
+
+	/***
+	 * @return the ID of a name as it was given or as it is interned by a Paper, -1 if it was never seen.
+	 */
+	private int lookup(SymbolTable table, String name)
+	{
+		int id = table.lookup(name);
+		if (id < 0)
+		{
+			id = table.lookup(name.toUpperCase());
+		}
+
+		if (id < 0 && table == job.author_table && job.author_names != null)
+		{
+			id = table.lookup(job.author_names.normalize(name));
+		}
+
+		return id;
+	}
+
+	private static int mode(String mode)
+	{
+		try
+		{
+			return Integer.parseInt(mode);
+		}
+		catch (NumberFormatException e)
+		{
+			throw new ParserException("Invalide operation mode, please indicate with a single digit which mode to query.", false);
+		}
+	}
+
+	private static String join(Iterable<String> words)
+	{
+		StringBuilder joined = new StringBuilder();
+		for (String word : words)
+		{
+			if (joined.length() > 0)
+			{
+				joined.append(' ');
+			}
+			joined.append(word);
+		}
+
+		return joined.toString();
+	}
+
+	private static long millis(long start)
+	{
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	/***
+	 * A graph of the cache, with the index of its neighbours once it was asked for.
+	 */
+	private static class Cached
+	{
+		CooccurrenceGraph graph;
+		private AdjacencyIndex index;
+
+		Cached(CooccurrenceGraph graph)
+		{
+			this.graph = graph;
+		}
+
+		AdjacencyIndex index()
+		{
+			if (index == null)
+			{
+				index = new AdjacencyIndex(graph);
+			}
+
+			return index;
+		}
+	}
+}
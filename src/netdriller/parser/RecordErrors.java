@@ -0,0 +1,148 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.json.simple.JSONValue;
+
+public class RecordErrors
+{
+	/***
+	 *
+	 *	This class collects the records of the input that were skipped in lenient mode.
+	 *
+	 *	Every skipped record is counted, but only a uniform sample of SAMPLE_SIZE of them is kept (reservoir sampling),
+	 *	so a dump with millions of bad records does not fill up the memory. The text of a sampled record is cut to MAX_TEXT_LENGTH characters.
+	 *	The sample is drawn with a fixed seed, so the same input gives the same report.
+	 *
+	 *	The report is JSON if the file name ends with .json and CSV (a line per sampled record) otherwise.
+	 */
+
+	public static int SAMPLE_SIZE = 100;
+	public static int MAX_TEXT_LENGTH = 1000;
+
+	public long count; // The number of skipped records
+
+	private ArrayList<Sample> samples = new ArrayList<Sample>();
+	private Random random = new Random(1);
+
+	/***
+	 * Counts a skipped record and keeps it if it is sampled.
+	 *
+	 * @param record - The number of the record in the outermost array, starting at 1.
+	 * @param position - The position of the record in the input file, -1 if it is not known.
+	 * @param reason - Why the record was skipped.
+	 * @param text - The text of the record, it is only used if the record is sampled.
+	 */
+	public void add(long record, long position, String reason, String text)
+	{
+		count++;
+
+		int slot = samples.size();
+		if (slot >= SAMPLE_SIZE)
+		{
+			long pick = (long) (random.nextDouble() * count);
+			if (pick >= SAMPLE_SIZE)
+			{
+				return;
+			}
+
+			slot = (int) pick;
+		}
+
+		Sample sample = new Sample();
+		sample.record = record;
+		sample.position = position;
+		sample.reason = reason;
+		sample.text = text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) + "..." : text;
+
+		if (slot == samples.size())
+		{
+			samples.add(sample);
+		}
+		else
+		{
+			samples.set(slot, sample);
+		}
+	}
+
+	/***
+	 * Writes out the number of skipped records and the sampled records in the order of the input.
+	 *
+	 * @param file - The report file, JSON if the name ends with .json and CSV otherwise.
+	 */
+	public void write(File file) throws IOException
+	{
+		List<Sample> sorted = new ArrayList<Sample>(samples);
+		Collections.sort(sorted);
+
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file, false), StandardCharsets.UTF_8);
+		try
+		{
+			if (file.getName().toLowerCase().endsWith(".json"))
+			{
+				Map<String, Object> report = new LinkedHashMap<String, Object>();
+				report.put("skipped_records", count);
+
+				List<Object> records = new ArrayList<Object>();
+				for (Sample sample : sorted)
+				{
+					Map<String, Object> record = new LinkedHashMap<String, Object>();
+					record.put("record", sample.record);
+					record.put("position", sample.position);
+					record.put("reason", sample.reason);
+					record.put("text", sample.text);
+					records.add(record);
+				}
+				report.put("sampled_records", records);
+
+				JSONValue.writeJSONString(report, writer);
+				writer.write("\n");
+			}
+			else
+			{
+				writer.write("record,position,reason,text\n");
+				for (Sample sample : sorted)
+				{
+					writer.write(sample.record + "," + sample.position + "," + quote(sample.reason) + "," + quote(sample.text) + "\n");
+				}
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	/***
+	 * @return the text as a quoted CSV cell, it may hold commas, quotes and line breaks.
+	 */
+	private static String quote(String text)
+	{
+		return "\"" + text.replace("\"", "\"\"") + "\"";
+	}
+
+	private static class Sample implements Comparable<Sample>
+	{
+		long record;
+		long position;
+		String reason;
+		String text;
+
+		@Override
+		public int compareTo(Sample other)
+		{
+			return Long.compare(record, other.record);
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONValue;
+
+public class RunReport
+{
+	/***
+	 *
+	 *	This class collects the timings and sizes of a run and writes them out as a machine readable report.
+	 *
+	 *	The papers are streamed, so the phases are interleaved: every phase keeps the total time spent in it.
+	 *	read      - reading the input file (for the json-simple reader, decoding the bytes into characters)
+	 *	parse     - tokenizing the JSON, for the memory mapped reader this includes reading and interning the names
+	 *	construct - building the Paper objects and interning their names from the JSON objects
+	 *	aggregate - counting the papers into the graph, the time spent reading papers is not included
+	 *	write     - writing the output file, the node list and the snapshot
+	 *
+	 *	The peak heap is the highest heap usage of the MemoryMXBean sampled while the run is timed, at most every
+	 *	SAMPLE_INTERVAL, and when the report is written. It includes garbage that was not collected yet.
+	 *
+	 *	The report is JSON if the file name ends with .json and CSV (a line per phase) otherwise.
+	 */
+
+	public static String READ = "read";
+	public static String PARSE = "parse";
+	public static String CONSTRUCT = "construct";
+	public static String AGGREGATE = "aggregate";
+	public static String WRITE = "write";
+
+	private static String[] PHASES = { READ, PARSE, CONSTRUCT, AGGREGATE, WRITE };
+
+	public static long SAMPLE_INTERVAL = 10000000L; // Nanoseconds between two samples of the heap usage
+
+	private static MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+	public Map<String, Object> run = new LinkedHashMap<String, Object>(); // Describes the run (mode, files, threads)
+
+	public long bytes_read;
+	public long bytes_written;
+	public long nodes;
+	public long edges;
+	public long peak_heap; // The highest heap usage sampled so far, in bytes
+
+	private long start = System.nanoTime();
+	private long[] nanos = new long[PHASES.length];
+	private long[] records = new long[PHASES.length];
+	private long last_sample;
+
+	/***
+	 * Adds time spent in a phase.
+	 *
+	 * @param phase - One of the phase names.
+	 * @param start - The System.nanoTime() when the work started.
+	 */
+	public void add_time(String phase, long start)
+	{
+		long now = System.nanoTime();
+		nanos[index(phase)] += now - start;
+		if (now - last_sample >= SAMPLE_INTERVAL)
+		{
+			sample_heap();
+		}
+	}
+
+	/***
+	 * Samples the heap usage, the highest sample is the peak heap of the report.
+	 */
+	public void sample_heap()
+	{
+		last_sample = System.nanoTime();
+		peak_heap = Math.max(peak_heap, MEMORY.getHeapMemoryUsage().getUsed());
+	}
+
+	/***
+	 * Takes time off a phase, for time that was counted in a phase that ran inside it.
+	 */
+	public void remove_time(String phase, long time)
+	{
+		nanos[index(phase)] -= time;
+	}
+
+	/***
+	 * @return the total time spent in a phase so far, in nanoseconds.
+	 */
+	public long time(String phase)
+	{
+		return nanos[index(phase)];
+	}
+
+	/***
+	 * Adds to the number of records (papers or edges) a phase has handled.
+	 */
+	public void add_records(String phase, long count)
+	{
+		records[index(phase)] += count;
+	}
+
+	/***
+	 * Wraps the reader of the input file so the time spent reading is added to the read phase.
+	 */
+	public Reader timed(Reader reader)
+	{
+		return new TimedReader(reader);
+	}
+
+	/***
+	 * Writes out the report.
+	 *
+	 * @param file - The report file, JSON if the name ends with .json and CSV otherwise.
+	 */
+	public void write(File file) throws IOException
+	{
+		long total = System.nanoTime() - start;
+		sample_heap();
+		long peak = peak_heap;
+
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file, false), StandardCharsets.UTF_8);
+		try
+		{
+			if (file.getName().toLowerCase().endsWith(".json"))
+			{
+				Map<String, Object> report = new LinkedHashMap<String, Object>(run);
+				report.put("total_ms", milliseconds(total));
+				report.put("peak_heap_bytes", peak);
+				report.put("nodes", nodes);
+				report.put("edges", edges);
+				report.put("bytes_read", bytes_read);
+				report.put("bytes_written", bytes_written);
+
+				List<Object> phases = new ArrayList<Object>();
+				for (int i = 0; i < PHASES.length; i++)
+				{
+					Map<String, Object> phase = new LinkedHashMap<String, Object>();
+					phase.put("phase", PHASES[i]);
+					phase.put("ms", milliseconds(nanos[i]));
+					phase.put("records", records[i]);
+					phase.put("records_per_second", records_per_second(records[i], nanos[i]));
+					phases.add(phase);
+				}
+				report.put("phases", phases);
+
+				JSONValue.writeJSONString(report, writer);
+				writer.write("\n");
+			}
+			else
+			{
+				StringBuilder header = new StringBuilder();
+				StringBuilder values = new StringBuilder();
+				for (Map.Entry<String, Object> entry : run.entrySet())
+				{
+					header.append(entry.getKey()).append(",");
+					values.append(String.valueOf(entry.getValue()).replaceAll(",", "")).append(",");
+				}
+
+				writer.write(header + "phase,ms,records,records_per_second,peak_heap_bytes,nodes,edges,bytes_read,bytes_written\n");
+				String totals = "," + peak + "," + nodes + "," + edges + "," + bytes_read + "," + bytes_written + "\n";
+				for (int i = 0; i < PHASES.length; i++)
+				{
+					writer.write(values + PHASES[i] + "," + milliseconds(nanos[i]) + "," + records[i] + "," + records_per_second(records[i], nanos[i]) + totals);
+				}
+				writer.write(values + "total," + milliseconds(total) + ",," + totals);
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	private static int index(String phase)
+	{
+		for (int i = 0; i < PHASES.length; i++)
+		{
+			if (PHASES[i].equals(phase))
+			{
+				return i;
+			}
+		}
+
+		throw new IllegalArgumentException("Unknown phase " + phase);
+	}
+
+	private static double milliseconds(long nanos)
+	{
+		return Math.round(nanos / 1000.0) / 1000.0;
+	}
+
+	private static long records_per_second(long records, long nanos)
+	{
+		return nanos <= 0 ? 0 : (long) (records * 1e9 / nanos);
+	}
+
+	/***
+	 * Adds the time spent in the wrapped reader to the read phase.
+	 */
+	private class TimedReader extends Reader
+	{
+		private Reader reader;
+
+		TimedReader(Reader reader)
+		{
+			this.reader = reader;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) throws IOException
+		{
+			long start = System.nanoTime();
+			try
+			{
+				return reader.read(buffer, offset, length);
+			}
+			finally
+			{
+				add_time(READ, start);
+			}
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package netdriller.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+
+public class Slicer
+{
+	/***
+	 *
+	 *	This class decides which slice of the datasets a paper is counted into.
+	 *
+	 *	Papers can be sliced by windows of years, by venue or both. Year windows are aligned to multiples of
+	 *	their length, so with 5 year windows a paper of 1992 is in the slice 1990-1994. A window of 1 year is
+	 *	named after the year. Papers without a year or venue are in the unknown slice.
+	 *	The slice names are used in the names of the output files, so a venue is upper-cased, its letters, digits
+	 *	and - are kept, its spaces become _ and any other character is percent-encoded as its UTF-8 bytes, like %5F
+	 *	for _ itself. Venues are matched without case like in PaperFilter, so "Sringer" and "sringer" are the slice
+	 *	SRINGER, and no two slices differ only in case on a file system that ignores it. Every other venue has a
+	 *	name of its own, "ACM SIGMOD" is ACM_SIGMOD and "ACM-SIGMOD" is ACM-SIGMOD.
+	 */
+
+	public static String UNKNOWN = "unknown";
+
+	private static char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	public int years; // The length of the year windows, 0 does not slice by year
+	public boolean venue; // Slice by venue
+
+	// Most papers share a few years and venues, their slice names are only built once
+	private HashMap<String, String> year_names = new HashMap<String, String>();
+	private HashMap<String, String> venue_names = new HashMap<String, String>();
+
+	/***
+	 * @param years - The length of the year windows, 0 does not slice by year.
+	 * @param venue - Slice by venue.
+	 */
+	public Slicer(int years, boolean venue)
+	{
+		this.years = years;
+		this.venue = venue;
+	}
+
+	/***
+	 * @return the name of the slice of the paper.
+	 */
+	public String slice(Paper paper)
+	{
+		if (years > 0 && venue)
+		{
+			return year_name(paper.year) + "_" + venue_name(paper.venue);
+		}
+
+		return years > 0 ? year_name(paper.year) : venue_name(paper.venue);
+	}
+
+	private String year_name(String year)
+	{
+		if (year == null)
+		{
+			return UNKNOWN;
+		}
+
+		String name = year_names.get(year);
+		if (name == null)
+		{
+			name = UNKNOWN;
+			try
+			{
+				int value = Integer.parseInt(year.trim());
+				int start = Math.floorDiv(value, years) * years;
+				name = years == 1 ? Integer.toString(value) : start + "-" + (start + years - 1);
+			}
+			catch (NumberFormatException e)
+			{
+				// The year is not a number, the paper goes into the unknown slice
+			}
+
+			year_names.put(year, name);
+		}
+
+		return name;
+	}
+
+	private String venue_name(String venue)
+	{
+		if (venue == null)
+		{
+			return UNKNOWN;
+		}
+
+		String name = venue_names.get(venue);
+		if (name == null)
+		{
+			name = encode(venue.trim().toUpperCase(Locale.ROOT));
+			if (name.isEmpty())
+			{
+				name = UNKNOWN;
+			}
+			else if (name.equalsIgnoreCase(UNKNOWN))
+			{
+				// A venue called unknown is not the slice of the papers without a venue, even where case is ignored
+				name = "%55" + name.substring(1);
+			}
+
+			venue_names.put(venue, name);
+		}
+
+		return name;
+	}
+
+	private static String encode(String venue)
+	{
+		StringBuilder name = new StringBuilder(venue.length());
+		for (byte b : venue.getBytes(StandardCharsets.UTF_8))
+		{
+			if ((b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '-')
+			{
+				name.append((char) b);
+			}
+			else if (b == ' ')
+			{
+				name.append('_');
+			}
+			else
+			{
+				name.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+			}
+		}
+
+		return name.toString();
+	}
+}
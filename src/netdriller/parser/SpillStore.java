@@ -0,0 +1,455 @@
+package netdriller.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class SpillStore
+{
+	/***
+	 *
+	 *	This class keeps the counts of a graph that does not fit in memory in sorted runs on disk.
+	 *
+	 *	When the counts of a graph grow past its memory budget they are written out as a run: every pair in sorted
+	 *	order with its count, after which the counts in memory start over. The edges of the graph are then read by
+	 *	a k-way merge of all the runs and the counts still in memory, which adds up the counts of the same pair.
+	 *	A one-mode graph stores every edge once, its runs list every edge in both directions so the merge can
+	 *	stream the full rows of the matrix. Only the counts are spilled, the symbol tables and nodes stay in memory.
+	 *
+	 *	Once the counting is done the runs and the counts in memory are merged into a single run with compact, so
+	 *	the edges that are read over and over when a graph is written (by the pruner, the sink, the metrics and the
+	 *	snapshot) are merged only once, and the number of edges is counted while that run is written.
+	 *
+	 *	Every entry of a run is the difference to the previous pair (as packed by PairCounter) and the count,
+	 *	both as unsigned varints. Runs are temporary files that are deleted at the end of the run.
+	 */
+
+	public static int BYTES_PER_PAIR = 64; // Memory of a pair in a PairCounter, with room for sorting it when it is spilled
+	public static int MAX_MERGE_RUNS = 64; // Runs that are merged at once, more runs are merged in steps
+
+	private static int BUFFER_SIZE = 1 << 16;
+
+	private File directory;
+	private boolean both_directions;
+	private ArrayList<File> runs = new ArrayList<File>();
+	private long compacted_edges = -1; // The edges of the single run written by compact, -1 if the runs were not compacted
+	private long written; // The pairs of the last run that was written
+	private long written_upper; // The pairs of the last run with row <= column
+
+	/***
+	 * @param directory - The directory of the temporary files, null for the default temporary directory.
+	 * @param both_directions - Write every pair of two different IDs in both directions, for one-mode graphs.
+	 */
+	public SpillStore(File directory, boolean both_directions)
+	{
+		this.directory = directory;
+		this.both_directions = both_directions;
+	}
+
+	/***
+	 * @param megabytes - The memory budget of the counts of a graph.
+	 * @return the number of pairs a graph can count in memory before it is spilled.
+	 */
+	public static long max_pairs(int megabytes)
+	{
+		return Math.max(1, megabytes * 1024L * 1024L / BYTES_PER_PAIR);
+	}
+
+	/***
+	 * Writes the counts out as a new run, the counts are not changed.
+	 * Partial graphs of several threads can spill into the same store.
+	 */
+	public synchronized void write(PairCounter counts)
+	{
+		if (counts.size() > 0)
+		{
+			runs.add(write_run(counts.cursor(both_directions)));
+			compacted_edges = -1;
+		}
+	}
+
+	/***
+	 * Merges all the runs and the counts in memory into a single run, if the store has spilled at all.
+	 *
+	 * @param counts - The counts that are still in memory, they are in the run afterwards and can be cleared.
+	 * @return true if a run was written and the counts have to be cleared.
+	 */
+	public synchronized boolean compact(PairCounter counts)
+	{
+		if (runs.isEmpty() || (runs.size() == 1 && counts.size() == 0 && compacted_edges >= 0))
+		{
+			return false;
+		}
+
+		File run = write_run(merge(counts, false));
+		delete();
+		runs.add(run);
+
+		// A one-mode graph stores every edge once, the upper triangle of its run
+		compacted_edges = both_directions ? written_upper : written;
+		return true;
+	}
+
+	/***
+	 * @return the number of edges of the graph after compact, as it stores them, -1 if the runs were not compacted.
+	 */
+	public synchronized long compacted_edges()
+	{
+		return compacted_edges;
+	}
+
+	/***
+	 * @return a new empty store that writes to the same directory in the same way.
+	 */
+	public SpillStore sibling()
+	{
+		return new SpillStore(directory, both_directions);
+	}
+
+	/***
+	 * Moves all the runs of another store into this store.
+	 */
+	public void take(SpillStore other)
+	{
+		List<File> taken;
+		synchronized (other)
+		{
+			taken = new ArrayList<File>(other.runs);
+			other.runs.clear();
+		}
+
+		synchronized (this)
+		{
+			runs.addAll(taken);
+			compacted_edges = -1;
+		}
+	}
+
+	/***
+	 * @return the number of runs on disk.
+	 */
+	public synchronized int runs()
+	{
+		return runs.size();
+	}
+
+	/***
+	 * @param counts - The counts that are still in memory.
+	 * @param upper_only - Only list the edges with row <= column, the edges as a one-mode graph stores them.
+	 * @return a cursor over the sums of the counts of all the runs and the counts in memory, sorted by row and column.
+	 */
+	public synchronized EdgeCursor merge(PairCounter counts, boolean upper_only)
+	{
+		// Merge the runs in steps, so that no more than MAX_MERGE_RUNS files are open at once
+		while (runs.size() > MAX_MERGE_RUNS)
+		{
+			List<File> step = new ArrayList<File>(runs.subList(0, MAX_MERGE_RUNS));
+			runs.subList(0, MAX_MERGE_RUNS).clear();
+
+			ArrayList<EdgeCursor> sources = new ArrayList<EdgeCursor>();
+			for (File run : step)
+			{
+				sources.add(new RunCursor(run));
+			}
+
+			runs.add(write_run(new MergeCursor(sources, false)));
+			for (File run : step)
+			{
+				run.delete();
+			}
+		}
+
+		ArrayList<EdgeCursor> sources = new ArrayList<EdgeCursor>();
+		for (File run : runs)
+		{
+			sources.add(new RunCursor(run));
+		}
+
+		sources.add(counts.cursor(both_directions));
+		return new MergeCursor(sources, upper_only);
+	}
+
+	/***
+	 * Deletes all the runs.
+	 */
+	public synchronized void delete()
+	{
+		for (File run : runs)
+		{
+			run.delete();
+		}
+
+		runs.clear();
+		compacted_edges = -1;
+	}
+
+	private File write_run(EdgeCursor edges)
+	{
+		File run = null;
+		try
+		{
+			run = File.createTempFile("netdriller", ".run", directory);
+			run.deleteOnExit();
+
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(run), BUFFER_SIZE);
+			try
+			{
+				long last = 0;
+				written = 0;
+				written_upper = 0;
+				while (edges.next())
+				{
+					long key = PairCounter.pack(edges.row(), edges.column());
+					write_varint(out, key - last);
+					write_varint(out, edges.weight());
+					last = key;
+					written++;
+					if (edges.row() <= edges.column())
+					{
+						written_upper++;
+					}
+				}
+			}
+			finally
+			{
+				edges.close();
+				out.close();
+			}
+		}
+		catch (IOException e)
+		{
+			failed(e);
+		}
+
+		return run;
+	}
+
+	private void failed(IOException e)
+	{
+		throw new ParserException("Was not able to write the temporary files of the counts to " + (directory == null ? System.getProperty("java.io.tmpdir") : directory.getPath())
+				+ ". Please make sure there is enough space and that the proper permissions are given to it. " + (e.getMessage() == null ? "" : e.getMessage()), false);
+	}
+
+	private static void write_varint(OutputStream out, long value) throws IOException
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		out.write((int) value);
+	}
+
+	/***
+	 * Reads the pairs of a run back in order.
+	 */
+	private class RunCursor implements EdgeCursor
+	{
+		private InputStream in;
+		private long key;
+		private int weight;
+
+		RunCursor(File run)
+		{
+			try
+			{
+				in = new BufferedInputStream(new FileInputStream(run), BUFFER_SIZE);
+			}
+			catch (IOException e)
+			{
+				failed(e);
+			}
+		}
+
+		@Override
+		public boolean next()
+		{
+			if (in == null)
+			{
+				return false;
+			}
+
+			try
+			{
+				int b = in.read();
+				if (b == -1)
+				{
+					close();
+					return false;
+				}
+
+				key += read_varint(b);
+				weight = (int) read_varint(in.read());
+				return true;
+			}
+			catch (IOException e)
+			{
+				failed(e);
+				return false;
+			}
+		}
+
+		private long read_varint(int b) throws IOException
+		{
+			long value = 0;
+			int shift = 0;
+			while (true)
+			{
+				if (b == -1)
+				{
+					throw new IOException("A temporary file of the counts ended unexpectedly.");
+				}
+
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					return value;
+				}
+
+				shift += 7;
+				b = in.read();
+			}
+		}
+
+		@Override
+		public int row()
+		{
+			return PairCounter.first(key);
+		}
+
+		@Override
+		public int column()
+		{
+			return PairCounter.second(key);
+		}
+
+		@Override
+		public int weight()
+		{
+			return weight;
+		}
+
+		@Override
+		public void close()
+		{
+			if (in != null)
+			{
+				try
+				{
+					in.close();
+				}
+				catch (IOException e)
+				{
+					// Nothing was written, the run is deleted anyway
+				}
+
+				in = null;
+			}
+		}
+	}
+
+	/***
+	 * Merges sorted cursors into one sorted cursor, the weights of the same edge are added up.
+	 */
+	private static class MergeCursor implements EdgeCursor
+	{
+		private PriorityQueue<EdgeCursor> queue;
+		private boolean upper_only;
+		private int row;
+		private int column;
+		private int weight;
+
+		MergeCursor(List<EdgeCursor> sources, boolean upper_only)
+		{
+			this.upper_only = upper_only;
+			this.queue = new PriorityQueue<EdgeCursor>(Math.max(1, sources.size()), new Comparator<EdgeCursor>()
+			{
+				@Override
+				public int compare(EdgeCursor a, EdgeCursor b)
+				{
+					return Long.compare(PairCounter.pack(a.row(), a.column()), PairCounter.pack(b.row(), b.column()));
+				}
+			});
+
+			for (EdgeCursor source : sources)
+			{
+				if (source.next())
+				{
+					queue.add(source);
+				}
+			}
+		}
+
+		@Override
+		public boolean next()
+		{
+			while (!queue.isEmpty())
+			{
+				EdgeCursor first = queue.poll();
+				row = first.row();
+				column = first.column();
+				weight = first.weight();
+				advance(first);
+
+				while (!queue.isEmpty() && queue.peek().row() == row && queue.peek().column() == column)
+				{
+					EdgeCursor same = queue.poll();
+					weight += same.weight();
+					advance(same);
+				}
+
+				if (!upper_only || row <= column)
+				{
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private void advance(EdgeCursor source)
+		{
+			if (source.next())
+			{
+				queue.add(source);
+			}
+		}
+
+		@Override
+		public int row()
+		{
+			return row;
+		}
+
+		@Override
+		public int column()
+		{
+			return column;
+		}
+
+		@Override
+		public int weight()
+		{
+			return weight;
+		}
+
+		@Override
+		public void close()
+		{
+			while (!queue.isEmpty())
+			{
+				queue.poll().close();
+			}
+		}
+	}
+}
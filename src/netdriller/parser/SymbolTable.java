@@ -0,0 +1,115 @@
+package netdriller.parser;
+
+import java.util.ArrayList;
+
+public class SymbolTable
+{
+	/***
+	 *
+	 *	This is a symbol table that maps every distinct author or keyword to a dense int ID.
+	 *
+	 *	IDs are handed out in the order the names are first seen, starting at 0, so they can be used
+	 *	directly as array indexes. The lookup is an open addressing table of IDs, so no boxed values are stored.
+	 */
+
+	public String kind; // The kind of node this table holds, e.g. "author" or "keyword"
+
+	private ArrayList<String> names;
+	private int[] slots; // Holds ID + 1 of the name hashed to the slot, 0 for an empty slot
+	private int mask;
+
+	public SymbolTable(String kind)
+	{
+		this.kind = kind;
+		this.names = new ArrayList<String>();
+		this.slots = new int[1024];
+		this.mask = slots.length - 1;
+	}
+
+	/***
+	 * @param name - The name to intern.
+	 * @return the ID of the name, a new ID is created if this is the first time the name is seen.
+	 */
+	public int intern(String name)
+	{
+		int slot = find_slot(name);
+		if (slots[slot] != 0)
+		{
+			return slots[slot] - 1;
+		}
+
+		int id = names.size();
+		names.add(name);
+		slots[slot] = id + 1;
+
+		// Keep the table at most half full
+		if (names.size() * 2 > slots.length)
+		{
+			grow();
+		}
+
+		return id;
+	}
+
+	/***
+	 * @param name - The name to look up.
+	 * @return the ID of the name or -1 if the name was never interned.
+	 */
+	public int lookup(String name)
+	{
+		return slots[find_slot(name)] - 1;
+	}
+
+	/***
+	 * @param id - An ID returned by intern.
+	 * @return the name the ID stands for.
+	 */
+	public String name(int id)
+	{
+		return names.get(id);
+	}
+
+	/***
+	 * @return the number of distinct names in the table.
+	 */
+	public int size()
+	{
+		return names.size();
+	}
+
+	private int find_slot(String name)
+	{
+		int slot = mix(name.hashCode()) & mask;
+		while (slots[slot] != 0 && !names.get(slots[slot] - 1).equals(name))
+		{
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	private void grow()
+	{
+		slots = new int[slots.length * 2];
+		mask = slots.length - 1;
+
+		for (int id = 0; id < names.size(); id++)
+		{
+			int slot = mix(names.get(id).hashCode()) & mask;
+			while (slots[slot] != 0)
+			{
+				slot = (slot + 1) & mask;
+			}
+
+			slots[slot] = id + 1;
+		}
+	}
+
+	private static int mix(int hash)
+	{
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+}
@@ -0,0 +1,385 @@
+package netdriller.parser;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class TitleTokenizer
+{
+	/***
+	 *
+	 *	This class extracts the terms of a paper title for the titles and keywords mode.
+	 *
+	 *	A title is split into words of letters and digits, which are lower cased. Stop words and single characters
+	 *	are dropped, the rest is stemmed (plurals, -ed and -ing, following the first step of the Porter stemmer)
+	 *	and interned upper cased into a symbol table, like the keywords are.
+	 *
+	 *	The titles are scanned in place and every word is looked up in a cache keyed by its lower cased characters,
+	 *	so a word is only stemmed and interned the first time it is seen. Words that were seen before do not allocate.
+	 *	The tokenizer is used by the reader thread only and is not thread safe. A tokenizer can be moved to another
+	 *	table with use, the stems it cached are kept and are only interned again the first time they are seen again.
+	 */
+
+	private static HashSet<String> STOP_WORDS = new HashSet<String>(Arrays.asList(
+			"a", "about", "above", "after", "again", "against", "all", "also", "among", "an", "and", "any", "are", "as", "at",
+			"be", "been", "before", "being", "between", "both", "but", "by", "can", "do", "does", "during", "each", "few",
+			"for", "from", "further", "had", "has", "have", "how", "if", "in", "into", "is", "it", "its", "more", "most",
+			"no", "nor", "not", "of", "off", "on", "once", "only", "or", "other", "our", "out", "over", "own", "same", "so",
+			"some", "such", "than", "that", "the", "their", "them", "then", "there", "these", "they", "this", "those",
+			"through", "to", "too", "toward", "towards", "under", "until", "up", "upon", "using", "very", "via", "was",
+			"we", "were", "what", "when", "where", "which", "while", "who", "why", "will", "with", "within", "without", "you"));
+
+	private static int STOP_WORD = -1; // Cached for words that are not terms
+
+	private SymbolTable table;
+
+	// The lower cased characters of the word being scanned
+	private char[] word = new char[64];
+	private int word_length;
+
+	// The distinct term IDs of the title being scanned
+	private int[] terms = new int[32];
+
+	// The cached words are kept back to back in a single arena, like in the ByteSymbolCache
+	private char[] arena = new char[1 << 14];
+	private int arena_length;
+	private int[] offsets = new int[1024];
+	private int[] lengths = new int[1024];
+	private int[] ids = new int[1024];
+	private String[] stems = new String[1024]; // The upper cased term of every cached word, null for a stop word
+	private int[] generations = new int[1024]; // The table the ID of every cached word was interned into
+	private int generation;
+	private int size;
+
+	private int[] slots = new int[2048]; // Holds entry + 1 of the word hashed to the slot, 0 for an empty slot
+	private int mask = slots.length - 1;
+
+	/***
+	 * @param table - The symbol table the upper cased terms are interned into.
+	 */
+	public TitleTokenizer(SymbolTable table)
+	{
+		this.table = table;
+	}
+
+	/***
+	 * Interns the terms into another symbol table from now on, the words that were stemmed before are not stemmed again.
+	 *
+	 * @param table - The symbol table the upper cased terms are interned into.
+	 */
+	public void use(SymbolTable table)
+	{
+		this.table = table;
+		generation++;
+	}
+
+	/***
+	 * @param title - The title of a paper, may be null.
+	 * @return the IDs of the distinct terms of the title in the order they first appear.
+	 */
+	public int[] terms(String title)
+	{
+		if (title == null)
+		{
+			return new int[0];
+		}
+
+		int count = 0;
+		int length = title.length();
+		int i = 0;
+		while (i < length)
+		{
+			// Skip to the start of the next word
+			while (i < length && !Character.isLetterOrDigit(title.charAt(i)))
+			{
+				i++;
+			}
+
+			word_length = 0;
+			while (i < length && Character.isLetterOrDigit(title.charAt(i)))
+			{
+				if (word_length == word.length)
+				{
+					word = Arrays.copyOf(word, word_length * 2);
+				}
+
+				word[word_length++] = Character.toLowerCase(title.charAt(i));
+				i++;
+			}
+
+			if (word_length < 2)
+			{
+				continue;
+			}
+
+			int id = lookup();
+			if (id == STOP_WORD || contains(terms, count, id))
+			{
+				continue;
+			}
+
+			if (count == terms.length)
+			{
+				terms = Arrays.copyOf(terms, count * 2);
+			}
+
+			terms[count++] = id;
+		}
+
+		return Arrays.copyOf(terms, count);
+	}
+
+	/***
+	 * @return the term ID of the scanned word, or STOP_WORD.
+	 */
+	private int lookup()
+	{
+		int slot = hash(word, 0, word_length) & mask;
+		while (slots[slot] != 0)
+		{
+			int entry = slots[slot] - 1;
+			if (equals(entry))
+			{
+				if (ids[entry] != STOP_WORD && generations[entry] != generation)
+				{
+					// Stemmed for another table
+					ids[entry] = table.intern(stems[entry]);
+					generations[entry] = generation;
+				}
+
+				return ids[entry];
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		// First time this word is seen, stem it and intern the term
+		String text = new String(word, 0, word_length);
+		int id = STOP_WORD;
+		String term = null;
+		if (!STOP_WORDS.contains(text))
+		{
+			term = stem(text).toUpperCase();
+			id = table.intern(term);
+		}
+
+		add(slot, id, term);
+		return id;
+	}
+
+	/***
+	 * Strips plurals and -ed or -ing endings, this is step 1a and 1b of the Porter stemmer.
+	 *
+	 * @param word - A lower cased word.
+	 * @return the stem of the word.
+	 */
+	public static String stem(String word)
+	{
+		if (word.length() <= 3)
+		{
+			return word;
+		}
+
+		// Step 1a, plurals
+		if (word.endsWith("sses") || word.endsWith("ies"))
+		{
+			word = word.substring(0, word.length() - 2);
+		}
+		else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is"))
+		{
+			word = word.substring(0, word.length() - 1);
+		}
+
+		// Step 1b, past tenses and gerunds
+		if (word.endsWith("eed"))
+		{
+			if (measure(word, word.length() - 3) > 0)
+			{
+				word = word.substring(0, word.length() - 1);
+			}
+		}
+		else if ((word.endsWith("ed") && has_vowel(word, word.length() - 2)) || (word.endsWith("ing") && has_vowel(word, word.length() - 3)))
+		{
+			word = word.substring(0, word.length() - (word.endsWith("ed") ? 2 : 3));
+
+			if (word.endsWith("at") || word.endsWith("bl") || word.endsWith("iz"))
+			{
+				word = word + "e";
+			}
+			else if (word.length() > 1 && word.charAt(word.length() - 1) == word.charAt(word.length() - 2)
+					&& is_consonant(word, word.length() - 1) && "lsz".indexOf(word.charAt(word.length() - 1)) < 0)
+			{
+				word = word.substring(0, word.length() - 1);
+			}
+			else if (measure(word, word.length()) == 1 && ends_with_cvc(word))
+			{
+				word = word + "e";
+			}
+		}
+
+		return word;
+	}
+
+	private static boolean is_consonant(String word, int i)
+	{
+		char c = word.charAt(i);
+		if (c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u')
+		{
+			return false;
+		}
+
+		// A y after a consonant is a vowel
+		if (c == 'y')
+		{
+			return i == 0 || !is_consonant(word, i - 1);
+		}
+
+		return true;
+	}
+
+	private static boolean has_vowel(String word, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			if (!is_consonant(word, i))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/***
+	 * @return the number of vowel-consonant sequences in the first length characters of the word.
+	 */
+	private static int measure(String word, int length)
+	{
+		int measure = 0;
+		boolean vowel = false;
+		for (int i = 0; i < length; i++)
+		{
+			if (!is_consonant(word, i))
+			{
+				vowel = true;
+			}
+			else if (vowel)
+			{
+				measure++;
+				vowel = false;
+			}
+		}
+
+		return measure;
+	}
+
+	/***
+	 * @return true if the word ends with consonant-vowel-consonant and the last consonant is not w, x or y.
+	 */
+	private static boolean ends_with_cvc(String word)
+	{
+		int n = word.length();
+		if (n < 3 || !is_consonant(word, n - 1) || is_consonant(word, n - 2) || !is_consonant(word, n - 3))
+		{
+			return false;
+		}
+
+		char last = word.charAt(n - 1);
+		return last != 'w' && last != 'x' && last != 'y';
+	}
+
+	private static boolean contains(int[] values, int count, int value)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			if (values[i] == value)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean equals(int entry)
+	{
+		if (lengths[entry] != word_length)
+		{
+			return false;
+		}
+
+		int offset = offsets[entry];
+		for (int i = 0; i < word_length; i++)
+		{
+			if (arena[offset + i] != word[i])
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void add(int slot, int id, String term)
+	{
+		if (arena_length + word_length > arena.length)
+		{
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arena_length + word_length));
+		}
+
+		if (size == ids.length)
+		{
+			offsets = Arrays.copyOf(offsets, size * 2);
+			lengths = Arrays.copyOf(lengths, size * 2);
+			ids = Arrays.copyOf(ids, size * 2);
+			stems = Arrays.copyOf(stems, size * 2);
+			generations = Arrays.copyOf(generations, size * 2);
+		}
+
+		System.arraycopy(word, 0, arena, arena_length, word_length);
+		offsets[size] = arena_length;
+		lengths[size] = word_length;
+		ids[size] = id;
+		stems[size] = term;
+		generations[size] = generation;
+		arena_length += word_length;
+
+		slots[slot] = size + 1;
+		size++;
+
+		// Keep the table at most half full
+		if (size * 2 > slots.length)
+		{
+			grow();
+		}
+	}
+
+	private void grow()
+	{
+		slots = new int[slots.length * 2];
+		mask = slots.length - 1;
+
+		for (int entry = 0; entry < size; entry++)
+		{
+			int slot = hash(arena, offsets[entry], lengths[entry]) & mask;
+			while (slots[slot] != 0)
+			{
+				slot = (slot + 1) & mask;
+			}
+
+			slots[slot] = entry + 1;
+		}
+	}
+
+	private static int hash(char[] chars, int offset, int length)
+	{
+		// FNV-1a
+		int hash = 0x811c9dc5;
+		for (int i = offset; i < offset + length; i++)
+		{
+			hash ^= chars[i];
+			hash *= 0x01000193;
+		}
+
+		return hash ^ (hash >>> 16);
+	}
+}
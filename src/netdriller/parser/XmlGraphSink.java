@@ -0,0 +1,188 @@
+package netdriller.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public abstract class XmlGraphSink implements GraphSink
+{
+	/***
+	 *
+	 *	This is the base of the sinks of the XML graph formats, see GraphMLSink and GexfSink.
+	 *
+	 *	All the nodes are written first with their name, type and the number of papers they were counted in,
+	 *	then the edges are streamed from the EdgeCursor of the graph. Edges refer to their nodes by an XML ID made
+	 *	of the type and the ID of the node (like author12), so no names are kept while the edges are written and
+	 *	only the edge that is being written is held in memory, even for a graph that spilled to disk.
+	 *	Edges of a one-mode graph are undirected, so every pair of nodes is written once.
+	 */
+
+	public boolean gzip;
+
+	/***
+	 * @param gzip - Compress the file with gzip, this is also done if the name of the file ends with .gz.
+	 */
+	public XmlGraphSink(boolean gzip)
+	{
+		this.gzip = gzip;
+	}
+
+	/***
+	 * @return the name of the format, the description of the sink is made of it.
+	 */
+	protected abstract String format();
+
+	/***
+	 * Writes everything that comes before the first node.
+	 */
+	protected abstract void begin(OutputWriter writer, CooccurrenceGraph graph) throws IOException;
+
+	/***
+	 * Writes a node.
+	 *
+	 * @param kind - The escaped type of the node, also the start of its XML ID.
+	 * @param id - The ID of the node in its symbol table.
+	 * @param name - The escaped name of the node.
+	 * @param papers - The number of papers the node was counted in.
+	 */
+	protected abstract void node(OutputWriter writer, byte[] kind, int id, byte[] name, int papers) throws IOException;
+
+	/***
+	 * Writes everything that comes between the last node and the first edge.
+	 */
+	protected abstract void between(OutputWriter writer) throws IOException;
+
+	/***
+	 * Writes an edge.
+	 *
+	 * @param index - The number of edges written before this one.
+	 */
+	protected abstract void edge(OutputWriter writer, long index, byte[] source_kind, int source, byte[] target_kind, int target, int weight) throws IOException;
+
+	/***
+	 * Writes everything that comes after the last edge.
+	 */
+	protected abstract void end(OutputWriter writer) throws IOException;
+
+	@Override
+	public String description()
+	{
+		return format() + " file";
+	}
+
+	@Override
+	public void write(CooccurrenceGraph graph, File output_file) throws IOException
+	{
+		OutputWriter writer = new OutputWriter(output_file, gzip); // Overwrites any other output file!
+		try
+		{
+			byte[] row_kind = escape(graph.rows.kind);
+			byte[] column_kind = escape(graph.columns.kind);
+
+			begin(writer, graph);
+
+			for (int row : graph.row_ids())
+			{
+				node(writer, row_kind, row, escape(graph.rows.name(row)), graph.row_papers(row));
+			}
+
+			if (!graph.is_one_mode())
+			{
+				for (int column : graph.column_ids())
+				{
+					node(writer, column_kind, column, escape(graph.columns.name(column)), graph.column_papers(column));
+				}
+			}
+
+			between(writer);
+
+			// A one-mode graph only stores the upper triangle, so every undirected pair is already there once
+			long index = 0;
+			EdgeCursor edges = graph.edges();
+			try
+			{
+				while (edges.next())
+				{
+					edge(writer, index++, row_kind, edges.row(), column_kind, edges.column(), edges.weight());
+				}
+			}
+			finally
+			{
+				edges.close();
+			}
+
+			end(writer);
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	/***
+	 * Writes the XML ID of a node, its type followed by its ID.
+	 */
+	protected static void write_id(OutputWriter writer, byte[] kind, int id) throws IOException
+	{
+		writer.write(kind);
+		writer.write_int(id);
+	}
+
+	/***
+	 * @return the UTF-8 bytes of a fixed piece of markup, so it is only encoded once.
+	 */
+	protected static byte[] bytes(String markup)
+	{
+		return markup.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/***
+	 * @return the text as it is written in XML text or in a quoted XML attribute, with the characters XML does not allow dropped.
+	 */
+	public static byte[] escape(String text)
+	{
+		StringBuilder escaped = new StringBuilder(text.length() + 16);
+		for (int i = 0; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if (c == '&')
+			{
+				escaped.append("&amp;");
+			}
+			else if (c == '<')
+			{
+				escaped.append("&lt;");
+			}
+			else if (c == '>')
+			{
+				escaped.append("&gt;");
+			}
+			else if (c == '"')
+			{
+				escaped.append("&quot;");
+			}
+			else if (c == '\t' || c == '\n' || c == '\r')
+			{
+				escaped.append(' ');
+			}
+			else if (c < 0x20 || c == 0xFFFE || c == 0xFFFF)
+			{
+				continue;
+			}
+			else if (Character.isSurrogate(c))
+			{
+				// Only a whole surrogate pair is a character
+				if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1)))
+				{
+					escaped.append(c).append(text.charAt(++i));
+				}
+			}
+			else
+			{
+				escaped.append(c);
+			}
+		}
+
+		return escaped.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}